@@ -0,0 +1,154 @@
+package moviecollection;
+
+/**
+ * Bitmap Index of Movies by Genre and Rating.
+ *
+ * Every genre and every rating holds a compressed bitmap of the rows of the
+ * movies with that value. Filters on genre and rating, and combinations of
+ * them, are evaluated by combining these bitmaps rather than by checking the
+ * movies one by one.
+ *
+ * @author Olaf Wrieden
+ * @version 1.0
+ */
+public class AttributeIndex extends MovieIndex {
+
+	// Index Attributes
+	private final IdBitmap[] genres;
+	private final IdBitmap[] ratings;
+
+	/**
+	 * Constructs an Attribute Index
+	 *
+	 * @param movies the movies to index
+	 */
+	public AttributeIndex(MovieList movies) {
+		super(movies);
+		this.genres = new IdBitmap[Genre.values().length];
+		for (int i = 0; i < this.genres.length; i++) {
+			this.genres[i] = new IdBitmap();
+		}
+		this.ratings = new IdBitmap[Rating.values().length];
+		for (int i = 0; i < this.ratings.length; i++) {
+			this.ratings[i] = new IdBitmap();
+		}
+	}
+
+	/**
+	 * Finds the movies of a genre with a rating in a range
+	 *
+	 * @param genre   the genre to find, or null for any genre
+	 * @param lowest  the lowest rating to find (inclusive)
+	 * @param highest the highest rating to find (inclusive)
+	 * @return the ascending rows of the matching movies
+	 */
+	public int[] search(Genre genre, Rating lowest, Rating highest) {
+		return visibleRows(select(genre, lowest, highest).toArray());
+	}
+
+	/**
+	 * Selects the movies of a genre with a rating in a range
+	 *
+	 * @param genre   the genre to select, or null for any genre
+	 * @param lowest  the lowest rating to select (inclusive)
+	 * @param highest the highest rating to select (inclusive)
+	 * @return a new bitmap of the rows of the selected movies, including those
+	 *         of movies not visible in the list
+	 */
+	public IdBitmap select(Genre genre, Rating lowest, Rating highest) {
+		catchUp();
+		// Every movie has a rating, so the full range leaves a genre as it is
+		if (genre != null && lowest.ordinal() == 0 && highest.ordinal() == this.ratings.length - 1) {
+			return this.genres[genre.ordinal()].copy();
+		}
+		IdBitmap rated = new IdBitmap();
+		for (int i = lowest.ordinal(); i <= highest.ordinal(); i++) {
+			rated = rated.or(this.ratings[i]);
+		}
+		if (genre == null) {
+			return rated;
+		}
+		return this.genres[genre.ordinal()].and(rated);
+	}
+
+	/**
+	 * Counts the selected movies of each genre and rating by intersecting the
+	 * selection with the bitmap of every genre and rating
+	 *
+	 * @param rows    the rows of the selected movies
+	 * @param genres  receives the number of selected movies of each genre, by
+	 *                ordinal
+	 * @param ratings receives the number of selected movies of each rating, by
+	 *                ordinal
+	 */
+	public void count(IdBitmap rows, int[] genres, int[] ratings) {
+		catchUp();
+		for (int i = 0; i < this.genres.length; i++) {
+			genres[i] = this.genres[i].and(rows).cardinality();
+		}
+		for (int i = 0; i < this.ratings.length; i++) {
+			ratings[i] = this.ratings[i].and(rows).cardinality();
+		}
+	}
+
+	/**
+	 * Estimates the number of movies of a genre with a rating in a range,
+	 * assuming genres and ratings are independent
+	 *
+	 * @param genre   the genre to find, or null for any genre
+	 * @param lowest  the lowest rating to find (inclusive)
+	 * @param highest the highest rating to find (inclusive)
+	 * @return the estimated number of matching movies
+	 */
+	public int estimate(Genre genre, Rating lowest, Rating highest) {
+		catchUp();
+		long rated = 0;
+		long total = 0;
+		for (int i = 0; i < this.ratings.length; i++) {
+			int cardinality = this.ratings[i].cardinality();
+			total += cardinality;
+			if (i >= lowest.ordinal() && i <= highest.ordinal()) {
+				rated += cardinality;
+			}
+		}
+		if (genre == null || total == 0) {
+			return (int) rated;
+		}
+		return (int) (rated * this.genres[genre.ordinal()].cardinality() / total);
+	}
+
+	/**
+	 * Adds a movie to the bitmaps of its genre and rating
+	 *
+	 * @param row   the row of the movie
+	 * @param movie the movie to add
+	 */
+	@Override
+	protected void addRow(int row, Movie movie) {
+		this.genres[movie.getGenre().ordinal()].add(row);
+		this.ratings[movie.getRating().ordinal()].add(row);
+	}
+
+	/**
+	 * Adds the movie stored in a row to the bitmaps of its genre and rating
+	 *
+	 * @param row the row of the movie
+	 */
+	@Override
+	protected void addRow(int row) {
+		this.genres[this.movies.getGenreAt(row).ordinal()].add(row);
+		this.ratings[this.movies.getRatingAt(row).ordinal()].add(row);
+	}
+
+	/**
+	 * Removes a movie from the bitmaps of its genre and rating
+	 *
+	 * @param row   the row of the movie
+	 * @param movie the movie to remove
+	 */
+	@Override
+	protected void removeRow(int row, Movie movie) {
+		this.genres[movie.getGenre().ordinal()].remove(row);
+		this.ratings[movie.getRating().ordinal()].remove(row);
+	}
+}
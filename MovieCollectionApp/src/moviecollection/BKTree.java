@@ -0,0 +1,147 @@
+package moviecollection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Burkhard-Keller Tree of Terms, Searched by Edit Distance.
+ *
+ * Every child of a node is kept under its Levenshtein distance from the node's
+ * term. As the distance is a metric, a search for the terms within k edits of
+ * a query only descends into the children whose distance lies within k of the
+ * query's distance from the node, so most of the terms are never compared.
+ * Terms cannot be removed from the tree.
+ *
+ * @author Olaf Wrieden
+ * @version 1.0
+ */
+public class BKTree {
+
+	// Tree Attributes
+	private Node root;
+	private int size;
+
+	/**
+	 * Adds a term to the tree, unless it is held already
+	 *
+	 * @param term the term to add
+	 * @return true if the term was added, else false
+	 */
+	public boolean add(String term) {
+		if (this.root == null) {
+			this.root = new Node(term);
+			this.size++;
+			return true;
+		}
+		Node node = this.root;
+		while (true) {
+			int distance = distance(term, node.term, Integer.MAX_VALUE);
+			if (distance == 0) {
+				return false;
+			}
+			if (node.children == null || distance >= node.children.length) {
+				node.children = Arrays.copyOf(node.children == null ? new Node[0] : node.children,
+						Math.max(distance + 1, node.children == null ? 4 : node.children.length));
+			}
+			if (node.children[distance] == null) {
+				node.children[distance] = new Node(term);
+				this.size++;
+				return true;
+			}
+			node = node.children[distance];
+		}
+	}
+
+	/**
+	 * Finds the terms within an edit distance of a query
+	 *
+	 * @param query       the term to search for
+	 * @param maxDistance the greatest number of edits to allow
+	 * @param terms       receives the terms found
+	 * @param distances   receives the edit distance of each term found
+	 */
+	public void search(String query, int maxDistance, ArrayList<String> terms, IntList distances) {
+		if (this.root == null) {
+			return;
+		}
+		ArrayList<Node> pending = new ArrayList<Node>();
+		pending.add(this.root);
+		while (!pending.isEmpty()) {
+			Node node = pending.remove(pending.size() - 1);
+
+			// The exact distance only matters while it can still reach a child
+			int children = node.children == null ? 0 : node.children.length;
+			int distance = distance(query, node.term, Math.max(maxDistance, children - 1 + maxDistance));
+			if (distance <= maxDistance) {
+				terms.add(node.term);
+				distances.add(distance);
+			}
+			if (children > 0) {
+				int last = Math.min(children - 1, distance + maxDistance);
+				for (int i = Math.max(1, distance - maxDistance); i <= last; i++) {
+					if (node.children[i] != null) {
+						pending.add(node.children[i]);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the number of terms in the tree
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Computes the Levenshtein distance of two terms: the least number of
+	 * inserted, deleted or replaced characters turning one into the other
+	 *
+	 * @param a           the first term
+	 * @param b           the second term
+	 * @param maxDistance the distance above which the exact distance is not
+	 *                    needed
+	 * @return the distance of the terms, or a distance greater than maxDistance
+	 *         if they are further apart
+	 */
+	public static int distance(String a, String b, int maxDistance) {
+		if (Math.abs(a.length() - b.length()) > maxDistance) {
+			return Math.abs(a.length() - b.length());
+		}
+		int[] previous = new int[b.length() + 1];
+		int[] current = new int[b.length() + 1];
+		for (int j = 0; j <= b.length(); j++) {
+			previous[j] = j;
+		}
+		for (int i = 1; i <= a.length(); i++) {
+			current[0] = i;
+			int best = i;
+			for (int j = 1; j <= b.length(); j++) {
+				int replace = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+				current[j] = Math.min(replace, Math.min(previous[j], current[j - 1]) + 1);
+				best = Math.min(best, current[j]);
+			}
+			if (best > maxDistance) {
+				return best;
+			}
+			int[] swap = previous;
+			previous = current;
+			current = swap;
+		}
+		return previous[b.length()];
+	}
+
+	/**
+	 * A Term in the Tree, with its Children Kept by Distance.
+	 */
+	private static class Node {
+
+		private final String term;
+		private Node[] children;
+
+		private Node(String term) {
+			this.term = term;
+		}
+	}
+}
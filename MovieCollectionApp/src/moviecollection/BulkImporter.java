@@ -0,0 +1,455 @@
+package moviecollection;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Parallel Importer for Movie Datasets in CSV or TSV Format.
+ *
+ * Each row holds a movie's title, director, genre, release year, rating and a
+ * comma-separated cast list, in that order. A leading header row is skipped.
+ * Genres and ratings may be given by name (case-insensitive, "Sci-Fi" for
+ * SCI_FI), ratings also as a number from 1 to 5. Quoted fields may contain
+ * the delimiter but not a line break, as every line is read as one row.
+ *
+ * The file is split into chunks that are parsed on all cores. Parsed movies
+ * are committed in batches and in file order; each chunk can only run a few
+ * batches ahead of the commits, so a slow consumer throttles the parsers.
+ * Rows that cannot be parsed are written to a reject file next to the input.
+ *
+ * @author Olaf Wrieden
+ * @version 1.0
+ */
+public class BulkImporter {
+
+	// Importer Settings
+	public static final int BATCH_SIZE = 10000;
+	public static final String REJECT_SUFFIX = ".rejects";
+	private static final int QUEUE_CAPACITY = 4;
+	private static final int CHUNKS_PER_THREAD = 4;
+	private static final int COLUMNS = 6;
+
+	// Marks the end of a chunk's batches
+	private static final List<Movie> END_OF_CHUNK = new ArrayList<Movie>();
+
+	// Importer Attributes
+	private final File input;
+	private final char delimiter;
+	private final int threads;
+	private Writer rejects;
+	private volatile int rejectedRows;
+
+	/**
+	 * Constructs a Bulk Importer using all cores. Files ending in ".tsv" are read
+	 * as tab-separated, all others as comma-separated.
+	 *
+	 * @param input the dataset to import
+	 */
+	public BulkImporter(File input) {
+		this(input, input.getName().toLowerCase(Locale.ROOT).endsWith(".tsv") ? '\t' : ',',
+				Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructs a Bulk Importer
+	 *
+	 * @param input     the dataset to import
+	 * @param delimiter the character separating the columns
+	 * @param threads   the number of threads parsing the dataset
+	 */
+	public BulkImporter(File input, char delimiter, int threads) {
+		this.input = input;
+		this.delimiter = delimiter;
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * Imports the dataset, handing the parsed movies to the consumer in batches.
+	 * The consumer is only called from the calling thread.
+	 *
+	 * @param consumer commits a batch of movies, for example to a collection
+	 * @return a report of the import
+	 * @throws IOException if the dataset could not be read
+	 */
+	public Report importMovies(Consumer<List<Movie>> consumer) throws IOException {
+		long start = System.nanoTime();
+		long length = this.input.length();
+		int chunkCount = (int) Math.max(1, Math.min(this.threads * CHUNKS_PER_THREAD, length / (1 << 16)));
+		File rejectFile = new File(this.input.getPath() + REJECT_SUFFIX);
+		this.rejectedRows = 0;
+		this.rejects = new BufferedWriter(
+				new OutputStreamWriter(new FileOutputStream(rejectFile), StandardCharsets.UTF_8));
+
+		// Parse all chunks, each into its own bounded queue
+		ExecutorService parsers = Executors.newFixedThreadPool(this.threads, runnable -> {
+			Thread thread = new Thread(runnable, "movie-importer");
+			thread.setDaemon(true);
+			return thread;
+		});
+		ArrayList<Chunk> chunks = new ArrayList<Chunk>();
+		for (int i = 0; i < chunkCount; i++) {
+			Chunk chunk = new Chunk(length * i / chunkCount, length * (i + 1) / chunkCount);
+			chunks.add(chunk);
+			parsers.execute(chunk);
+		}
+
+		// Commit the batches in file order
+		long imported = 0;
+		try {
+			for (Chunk chunk : chunks) {
+				List<Movie> batch;
+				while ((batch = chunk.batches.take()) != END_OF_CHUNK) {
+					consumer.accept(batch);
+					imported += batch.size();
+				}
+				if (chunk.failure != null) {
+					throw chunk.failure;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("The import was interrupted", e);
+		} finally {
+			parsers.shutdownNow();
+			try {
+				parsers.awaitTermination(1, TimeUnit.MINUTES);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			this.rejects.close();
+		}
+		if (this.rejectedRows == 0) {
+			rejectFile.delete();
+		}
+		return new Report(imported, this.rejectedRows, System.nanoTime() - start,
+				this.rejectedRows == 0 ? null : rejectFile);
+	}
+
+	/**
+	 * Parses a single row of the dataset
+	 *
+	 * @param line the row to parse
+	 * @return the movie described by the row
+	 * @throws IllegalArgumentException if the row is malformed
+	 */
+	public Movie parseRow(String line) {
+		String[] fields = splitRow(line);
+		if (fields.length != COLUMNS) {
+			throw new IllegalArgumentException("expected " + COLUMNS + " columns but found " + fields.length);
+		}
+		String title = fields[0].trim();
+		String director = fields[1].trim();
+		if (title.isEmpty() || director.isEmpty()) {
+			throw new IllegalArgumentException("title and director are required");
+		}
+		int releaseYear;
+		try {
+			releaseYear = Integer.parseInt(fields[3].trim());
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("invalid year '" + fields[3] + "'");
+		}
+		return new Movie(title, director, parseGenre(fields[2]), releaseYear, parseRating(fields[4]),
+				Movie.parseCastList(fields[5]));
+	}
+
+	/**
+	 * Splits a row into its fields. Fields may be enclosed in double quotes, in
+	 * which case they may contain the delimiter and doubled quotes.
+	 *
+	 * @param line the row to split
+	 * @return the row's fields
+	 */
+	private String[] splitRow(String line) {
+		ArrayList<String> fields = new ArrayList<String>(COLUMNS);
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (quoted) {
+				if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+					field.append('"');
+					i++;
+				} else if (c == '"') {
+					quoted = false;
+				} else {
+					field.append(c);
+				}
+			} else if (c == '"') {
+				quoted = true;
+			} else if (c == this.delimiter) {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else {
+				field.append(c);
+			}
+		}
+		if (quoted) {
+			throw new IllegalArgumentException("unterminated quote");
+		}
+		fields.add(field.toString());
+		return fields.toArray(new String[fields.size()]);
+	}
+
+	/**
+	 * @param value the genre's name
+	 * @return the genre
+	 */
+	private static Genre parseGenre(String value) {
+		String name = value.trim().toUpperCase(Locale.ROOT).replace('-', '_').replace(' ', '_');
+		try {
+			return Genre.valueOf(name);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("unknown genre '" + value + "'");
+		}
+	}
+
+	/**
+	 * @param value the rating's name or number
+	 * @return the rating
+	 */
+	private static Rating parseRating(String value) {
+		String name = value.trim().toUpperCase(Locale.ROOT);
+		if (name.length() == 1 && name.charAt(0) >= '1' && name.charAt(0) <= '5') {
+			return Rating.values()[name.charAt(0) - '1'];
+		}
+		try {
+			return Rating.valueOf(name);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("unknown rating '" + value + "'");
+		}
+	}
+
+	/**
+	 * Records a row that could not be imported
+	 *
+	 * @param offset the byte offset of the row in the dataset
+	 * @param reason the reason the row was rejected
+	 * @param line   the rejected row
+	 * @throws IOException if the reject file could not be written
+	 */
+	private synchronized void reject(long offset, String reason, String line) throws IOException {
+		this.rejects.write(offset + "\t" + reason + "\t" + line + System.lineSeparator());
+		this.rejectedRows++;
+	}
+
+	/**
+	 * A Range of the Dataset, Parsed by a Single Thread.
+	 *
+	 * A chunk owns every row that starts within its range.
+	 */
+	private class Chunk implements Runnable {
+
+		// Chunk Attributes
+		private final long start;
+		private final long end;
+		private final BlockingQueue<List<Movie>> batches = new ArrayBlockingQueue<List<Movie>>(QUEUE_CAPACITY);
+		private volatile IOException failure;
+
+		/**
+		 * Constructs a Chunk
+		 *
+		 * @param start the first byte of the range (inclusive)
+		 * @param end   the last byte of the range (exclusive)
+		 */
+		private Chunk(long start, long end) {
+			this.start = start;
+			this.end = end;
+		}
+
+		/**
+		 * Parses the rows of the chunk
+		 */
+		@Override
+		public void run() {
+			try {
+				try (FileChannel channel = FileChannel.open(input.toPath(), StandardOpenOption.READ)) {
+					// Begin after the line break in front of the first row of the chunk
+					long position = Math.max(0, this.start - 1);
+					InputStream in = new BufferedInputStream(Channels.newInputStream(channel.position(position)),
+							1 << 16);
+					LineReader reader = new LineReader(in, position);
+					if (this.start > 0) {
+						reader.readLine();
+					}
+
+					ArrayList<Movie> batch = new ArrayList<Movie>(BATCH_SIZE);
+					while (reader.position < this.end) {
+						long offset = reader.position;
+						String line = reader.readLine();
+						if (line == null) {
+							break;
+						}
+						if (line.trim().isEmpty() || (offset == 0 && isHeader(line))) {
+							continue;
+						}
+						try {
+							batch.add(parseRow(line));
+						} catch (IllegalArgumentException e) {
+							reject(offset, e.getMessage(), line);
+						}
+						if (batch.size() == BATCH_SIZE) {
+							this.batches.put(batch);
+							batch = new ArrayList<Movie>(BATCH_SIZE);
+						}
+					}
+					if (!batch.isEmpty()) {
+						this.batches.put(batch);
+					}
+				} catch (IOException e) {
+					this.failure = e;
+				}
+				this.batches.put(END_OF_CHUNK);
+			} catch (InterruptedException e) {
+				// The import was aborted
+			}
+		}
+
+		/**
+		 * @param line the first row of the dataset
+		 * @return true if the row names the columns, else false
+		 */
+		private boolean isHeader(String line) {
+			String[] fields = splitRow(line);
+			return fields.length > 0 && fields[0].trim().equalsIgnoreCase("title");
+		}
+	}
+
+	/**
+	 * Reads UTF-8 Lines while Tracking their Byte Offsets.
+	 */
+	private static class LineReader {
+
+		// Reader Attributes
+		private final InputStream in;
+		private long position;
+		private byte[] line = new byte[256];
+
+		/**
+		 * Constructs a Line Reader
+		 *
+		 * @param in       the stream to read from
+		 * @param position the byte offset of the stream's first byte
+		 */
+		private LineReader(InputStream in, long position) {
+			this.in = in;
+			this.position = position;
+		}
+
+		/**
+		 * @return the next line without its line break, or null at the end
+		 * @throws IOException if the stream could not be read
+		 */
+		private String readLine() throws IOException {
+			int length = 0;
+			int b;
+			while ((b = this.in.read()) != -1) {
+				this.position++;
+				if (b == '\n') {
+					break;
+				}
+				if (length == this.line.length) {
+					this.line = Arrays.copyOf(this.line, length * 2);
+				}
+				this.line[length++] = (byte) b;
+			}
+			if (b == -1 && length == 0) {
+				return null;
+			}
+			if (length > 0 && this.line[length - 1] == '\r') {
+				length--;
+			}
+			return new String(this.line, 0, length, StandardCharsets.UTF_8);
+		}
+	}
+
+	/**
+	 * Outcome of an Import.
+	 */
+	public static class Report {
+
+		// Report Attributes
+		private final long importedRows;
+		private final long rejectedRows;
+		private final long elapsedNanos;
+		private final File rejectFile;
+
+		/**
+		 * Constructs a Report
+		 *
+		 * @param importedRows the number of imported movies
+		 * @param rejectedRows the number of malformed rows
+		 * @param elapsedNanos the duration of the import
+		 * @param rejectFile   the file listing the malformed rows, or null
+		 */
+		public Report(long importedRows, long rejectedRows, long elapsedNanos, File rejectFile) {
+			this.importedRows = importedRows;
+			this.rejectedRows = rejectedRows;
+			this.elapsedNanos = elapsedNanos;
+			this.rejectFile = rejectFile;
+		}
+
+		/**
+		 * @return the number of imported movies
+		 */
+		public long getImportedRows() {
+			return importedRows;
+		}
+
+		/**
+		 * @return the number of malformed rows
+		 */
+		public long getRejectedRows() {
+			return rejectedRows;
+		}
+
+		/**
+		 * @return the duration of the import in nanoseconds
+		 */
+		public long getElapsedNanos() {
+			return elapsedNanos;
+		}
+
+		/**
+		 * @return the file listing the malformed rows, or null if there were none
+		 */
+		public File getRejectFile() {
+			return rejectFile;
+		}
+
+		/**
+		 * @return the number of rows imported or rejected per second
+		 */
+		public double getRowsPerSecond() {
+			return (this.importedRows + this.rejectedRows) / Math.max(this.elapsedNanos / 1e9, 1e-9);
+		}
+
+		/**
+		 * @return a string representation of the report
+		 */
+		@Override
+		public String toString() {
+			return String.format("Imported %,d movies, rejected %,d rows in %.1f s (%,.0f rows/sec)", this.importedRows,
+					this.rejectedRows, this.elapsedNanos / 1e9, getRowsPerSecond());
+		}
+	}
+}
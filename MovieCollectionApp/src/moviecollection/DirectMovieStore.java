@@ -0,0 +1,342 @@
+package moviecollection;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Column Storage of Movies outside of the Java Heap.
+ *
+ * Movies are kept in direct buffers, which the garbage collector neither
+ * scans nor moves, so the heap stays the same size however many movies are
+ * stored. Every movie has a record of {@value #RECORD_SIZE} bytes holding its
+ * release year, genre, rating, director and the position of its entry in a
+ * string arena. The entry holds the title's bytes followed by the cast
+ * members' codes.
+ *
+ * Direct memory is limited to the maximum heap size unless the JVM is started
+ * with a larger {@code -XX:MaxDirectMemorySize}.
+ *
+ * @author Olaf Wrieden
+ * @version 1.0
+ */
+public class DirectMovieStore extends MovieStore {
+
+	// Layout of a Record
+	private static final int RECORD_SIZE = 32;
+	private static final int RELEASE_YEAR = 0;
+	private static final int GENRE = 4;
+	private static final int RATING = 5;
+	private static final int FLAGS = 6;
+	private static final int DIRECTOR = 8;
+	private static final int TITLE_LENGTH = 12;
+	private static final int ENTRY = 16;
+	private static final int CAST_COUNT = 24;
+
+	// Store Attributes
+	private Region records;
+	private Region arena;
+	private int rowCount;
+	private boolean shared;
+
+	/**
+	 * Constructs an empty Direct Movie Store
+	 */
+	public DirectMovieStore() {
+		this(16);
+	}
+
+	/**
+	 * Constructs an empty Direct Movie Store
+	 *
+	 * @param capacity the number of movies to make room for
+	 */
+	public DirectMovieStore(int capacity) {
+		this(new Region((long) capacity * RECORD_SIZE), new Region((long) capacity * RECORD_SIZE));
+	}
+
+	/**
+	 * Constructs a Direct Movie Store from its regions
+	 *
+	 * @param records the region holding the records
+	 * @param arena   the region holding the titles and cast lists
+	 */
+	private DirectMovieStore(Region records, Region arena) {
+		this.records = records;
+		this.arena = arena;
+	}
+
+	/**
+	 * Copies the store. The copy shares the buffers of this store, and copies
+	 * the last buffer of each region before it appends a movie itself.
+	 *
+	 * @return a copy of the store
+	 */
+	@Override
+	public MovieStore copy() {
+		DirectMovieStore copy = new DirectMovieStore(this.records.copy(), this.arena.copy());
+		copy.rowCount = this.rowCount;
+		copy.shared = true;
+		return copy;
+	}
+
+	/**
+	 * @return the number of movies in the store
+	 */
+	@Override
+	public int size() {
+		return this.rowCount;
+	}
+
+	/**
+	 * Appends a movie as a new row
+	 *
+	 * @param movie the movie to append
+	 * @return the row of the movie
+	 */
+	@Override
+	public int add(Movie movie) {
+		if (this.shared) {
+			// The buffers past the shared movies belong to the original store
+			this.records.unshare();
+			this.arena.unshare();
+			this.shared = false;
+		}
+		String title = movie.getTitle();
+		int[] castList = movie.getCastCodes();
+		byte flag = titleFlag(title);
+		byte[] titleBytes = title == null ? new byte[0] : title.getBytes(titleCharset(flag));
+		if (castList == null) {
+			flag |= NO_CAST;
+			castList = new int[0];
+		}
+
+		// Write the entry, then the record pointing to it
+		long entry = this.arena.allocate(titleBytes.length + 4 * castList.length);
+		ByteBuffer segment = this.arena.segment(entry);
+		int offset = Region.offset(entry);
+		segment.duplicate().position(offset).put(titleBytes);
+		for (int i = 0; i < castList.length; i++) {
+			segment.putInt(offset + titleBytes.length + 4 * i, castList[i]);
+		}
+		long record = this.records.allocate(RECORD_SIZE);
+		segment = this.records.segment(record);
+		offset = Region.offset(record);
+		segment.putInt(offset + RELEASE_YEAR, movie.getReleaseYear());
+		segment.put(offset + GENRE, ordinalOf(movie.getGenre()));
+		segment.put(offset + RATING, ordinalOf(movie.getRating()));
+		segment.put(offset + FLAGS, flag);
+		segment.putInt(offset + DIRECTOR, movie.getDirectorCode());
+		segment.putInt(offset + TITLE_LENGTH, titleBytes.length);
+		segment.putLong(offset + ENTRY, entry);
+		segment.putInt(offset + CAST_COUNT, castList.length);
+		return this.rowCount++;
+	}
+
+	/**
+	 * @param row the row of the movie
+	 * @return the movie's title
+	 */
+	@Override
+	public String getTitle(int row) {
+		byte flag = getRecordByte(row, FLAGS);
+		if ((flag & NO_TITLE) != 0) {
+			return null;
+		}
+		byte[] bytes = new byte[getRecordInt(row, TITLE_LENGTH)];
+		long entry = getRecordLong(row, ENTRY);
+		this.arena.segment(entry).duplicate().position(Region.offset(entry)).get(bytes);
+		return new String(bytes, titleCharset(flag));
+	}
+
+	/**
+	 * @param row the row of the movie
+	 * @return the movie's genre
+	 */
+	@Override
+	public Genre getGenre(int row) {
+		return toGenre(getRecordByte(row, GENRE));
+	}
+
+	/**
+	 * @param row the row of the movie
+	 * @return the movie's release year
+	 */
+	@Override
+	public int getReleaseYear(int row) {
+		return getRecordInt(row, RELEASE_YEAR);
+	}
+
+	/**
+	 * @param row the row of the movie
+	 * @return the movie's rating
+	 */
+	@Override
+	public Rating getRating(int row) {
+		return toRating(getRecordByte(row, RATING));
+	}
+
+	/**
+	 * @param row the row of the movie
+	 * @return the dictionary code of the movie's director
+	 */
+	@Override
+	protected int getDirectorCode(int row) {
+		return getRecordInt(row, DIRECTOR);
+	}
+
+	/**
+	 * @param row the row of the movie
+	 * @return new array of the dictionary codes of the movie's cast members
+	 */
+	@Override
+	protected int[] getCastCodes(int row) {
+		if ((getRecordByte(row, FLAGS) & NO_CAST) != 0) {
+			return null;
+		}
+		int[] castCodes = new int[getRecordInt(row, CAST_COUNT)];
+		long position = getRecordLong(row, ENTRY) + getRecordInt(row, TITLE_LENGTH);
+		ByteBuffer segment = this.arena.segment(position);
+		int offset = Region.offset(position);
+		for (int i = 0; i < castCodes.length; i++) {
+			castCodes[i] = segment.getInt(offset + 4 * i);
+		}
+		return castCodes;
+	}
+
+	/**
+	 * @param row   the row of a movie
+	 * @param field the position of the field in the record
+	 * @return the byte field of the movie's record
+	 */
+	private byte getRecordByte(int row, int field) {
+		long record = (long) checkRow(row) * RECORD_SIZE;
+		return this.records.segment(record).get(Region.offset(record) + field);
+	}
+
+	/**
+	 * @param row   the row of a movie
+	 * @param field the position of the field in the record
+	 * @return the integer field of the movie's record
+	 */
+	private int getRecordInt(int row, int field) {
+		long record = (long) checkRow(row) * RECORD_SIZE;
+		return this.records.segment(record).getInt(Region.offset(record) + field);
+	}
+
+	/**
+	 * @param row   the row of a movie
+	 * @param field the position of the field in the record
+	 * @return the long field of the movie's record
+	 */
+	private long getRecordLong(int row, int field) {
+		long record = (long) checkRow(row) * RECORD_SIZE;
+		return this.records.segment(record).getLong(Region.offset(record) + field);
+	}
+
+	/**
+	 * Growable Run of Direct Buffers.
+	 *
+	 * Positions are split into a segment and an offset within it, and nothing
+	 * allocated straddles two segments. Only the last segment is ever written
+	 * to; it is grown by doubling until it reaches the full segment size.
+	 */
+	private static class Region {
+
+		// Regions are split into segments of at most a gigabyte
+		private static final int SEGMENT_BITS = 30;
+		private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+		private static final int MIN_SEGMENT_SIZE = 4096;
+
+		private ByteBuffer[] segments;
+		private long length;
+
+		private Region(long capacity) {
+			this.segments = new ByteBuffer[] {
+					allocateSegment((int) Math.min(SEGMENT_SIZE, Math.max(capacity, MIN_SEGMENT_SIZE))) };
+		}
+
+		private Region(ByteBuffer[] segments, long length) {
+			this.segments = segments;
+			this.length = length;
+		}
+
+		/**
+		 * @param position a position in the region
+		 * @return the segment holding the position
+		 */
+		private ByteBuffer segment(long position) {
+			return this.segments[(int) (position >>> SEGMENT_BITS)];
+		}
+
+		/**
+		 * @param position a position in the region
+		 * @return the position's offset within its segment
+		 */
+		private static int offset(long position) {
+			return (int) (position & (SEGMENT_SIZE - 1));
+		}
+
+		/**
+		 * Allocates bytes at the end of the region
+		 *
+		 * @param bytes the number of bytes to allocate
+		 * @return the position of the allocated bytes
+		 */
+		private long allocate(int bytes) {
+			if (bytes > SEGMENT_SIZE) {
+				throw new IllegalArgumentException("Cannot store " + bytes + " bytes in one segment");
+			}
+			int index = (int) (this.length >>> SEGMENT_BITS);
+			int offset = offset(this.length);
+			if (offset + (long) bytes > SEGMENT_SIZE) {
+				// Start a new segment rather than straddle two
+				index++;
+				offset = 0;
+			}
+			if (index == this.segments.length) {
+				this.segments = Arrays.copyOf(this.segments, index + 1);
+				this.segments[index] = allocateSegment(Math.max(bytes, MIN_SEGMENT_SIZE));
+			} else if (offset + bytes > this.segments[index].capacity()) {
+				int capacity = (int) Math.min(SEGMENT_SIZE,
+						Math.max(2L * this.segments[index].capacity(), offset + bytes));
+				ByteBuffer grown = allocateSegment(capacity);
+				ByteBuffer used = this.segments[index].duplicate();
+				used.position(0).limit(offset);
+				grown.put(used);
+				this.segments[index] = grown;
+			}
+			long position = ((long) index << SEGMENT_BITS) + offset;
+			this.length = position + bytes;
+			return position;
+		}
+
+		/**
+		 * @return a region sharing the segments and length of this region
+		 */
+		private Region copy() {
+			return new Region(this.segments.clone(), this.length);
+		}
+
+		/**
+		 * Copies the last segment, the only one that is written to, so that
+		 * appending to the region leaves the segment of another region alone
+		 */
+		private void unshare() {
+			int index = this.segments.length - 1;
+			ByteBuffer used = this.segments[index].duplicate();
+			used.position(0).limit((int) (this.length - ((long) index << SEGMENT_BITS)));
+			ByteBuffer copy = allocateSegment(this.segments[index].capacity());
+			copy.put(used);
+			this.segments[index] = copy;
+		}
+
+		/**
+		 * @param capacity the capacity of the segment
+		 * @return a new direct segment in the platform's byte order
+		 */
+		private static ByteBuffer allocateSegment(int capacity) {
+			return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+		}
+	}
+}
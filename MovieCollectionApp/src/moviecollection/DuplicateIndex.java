@@ -0,0 +1,118 @@
+package moviecollection;
+
+import java.util.HashMap;
+import java.util.Locale;
+
+/**
+ * Hash Index Counting the Movies per Normalized Title.
+ *
+ * Titles are normalized by trimming them and ignoring case. Movies are also
+ * counted per title, release year and director, which tells a remake apart from
+ * a movie that was entered twice. Looking up either count takes constant time.
+ *
+ * @author Olaf Wrieden
+ * @version 1.0
+ */
+public class DuplicateIndex extends MovieIndex {
+
+	// Index Attributes
+	private final HashMap<String, Integer> titles;
+	private final HashMap<String, Integer> releases;
+
+	/**
+	 * Constructs a Duplicate Index
+	 *
+	 * @param movies the movies to index
+	 */
+	public DuplicateIndex(MovieList movies) {
+		super(movies);
+		this.titles = new HashMap<String, Integer>();
+		this.releases = new HashMap<String, Integer>();
+	}
+
+	/**
+	 * @param title a movie title
+	 * @return the number of movies with the title, ignoring case
+	 */
+	public int countTitle(String title) {
+		catchUp();
+		return this.titles.getOrDefault(normalize(title), 0);
+	}
+
+	/**
+	 * @param title       a movie title
+	 * @param releaseYear the movie's release year
+	 * @param director    the movie's director
+	 * @return the number of movies with the title, release year and director,
+	 *         ignoring case
+	 */
+	public int countRelease(String title, int releaseYear, String director) {
+		catchUp();
+		return this.releases.getOrDefault(releaseKey(title, releaseYear, director), 0);
+	}
+
+	/**
+	 * Counts the movie stored in a row under its title and its release, reading
+	 * only the columns counted
+	 *
+	 * @param row the row of the movie
+	 */
+	@Override
+	protected void addRow(int row) {
+		add(this.movies.getTitleAt(row), this.movies.getReleaseYearAt(row), this.movies.getDirectorAt(row));
+	}
+
+	/**
+	 * Counts a movie under its title and its release
+	 *
+	 * @param row   the row of the movie
+	 * @param movie the movie to add
+	 */
+	@Override
+	protected void addRow(int row, Movie movie) {
+		add(movie.getTitle(), movie.getReleaseYear(), movie.getDirector());
+	}
+
+	/**
+	 * Counts a movie under its title and its release
+	 *
+	 * @param title       the movie's title
+	 * @param releaseYear the movie's release year
+	 * @param director    the movie's director
+	 */
+	private void add(String title, int releaseYear, String director) {
+		this.titles.merge(normalize(title), 1, Integer::sum);
+		this.releases.merge(releaseKey(title, releaseYear, director), 1, Integer::sum);
+	}
+
+	/**
+	 * Stops counting a movie under its title and its release
+	 *
+	 * @param row   the row of the movie
+	 * @param movie the movie to remove
+	 */
+	@Override
+	protected void removeRow(int row, Movie movie) {
+		this.titles.computeIfPresent(normalize(movie.getTitle()), (title, count) -> count == 1 ? null : count - 1);
+		this.releases.computeIfPresent(releaseKey(movie.getTitle(), movie.getReleaseYear(), movie.getDirector()),
+				(release, count) -> count == 1 ? null : count - 1);
+	}
+
+	/**
+	 * @param text a title or a name
+	 * @return the trimmed, lower-case text, or an empty string for null
+	 */
+	private static String normalize(String text) {
+		return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * @param title       a movie title
+	 * @param releaseYear the movie's release year
+	 * @param director    the movie's director
+	 * @return the key of the movie's release
+	 */
+	private static String releaseKey(String title, int releaseYear, String director) {
+		return normalize(title) + '\u0000' + releaseYear + '\u0000' + normalize(director);
+	}
+}
@@ -0,0 +1,103 @@
+package moviecollection;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Numbers of Matching Movies per Genre, Rating and Release Decade.
+ *
+ * @author Olaf Wrieden
+ * @version 1.0
+ */
+public class FacetCounts {
+
+	// Facet Attributes
+	private final int total;
+	private final int[] genres;
+	private final int[] ratings;
+	private final SortedMap<Integer, Integer> decades;
+
+	/**
+	 * Constructs the Facet Counts of a search
+	 *
+	 * @param total   the number of matching movies
+	 * @param genres  the number of matching movies of each genre, by ordinal
+	 * @param ratings the number of matching movies of each rating, by ordinal
+	 * @param decades the number of matching movies released in each decade, by
+	 *                its first year
+	 */
+	public FacetCounts(int total, int[] genres, int[] ratings, SortedMap<Integer, Integer> decades) {
+		this.total = total;
+		this.genres = genres.clone();
+		this.ratings = ratings.clone();
+		this.decades = Collections.unmodifiableSortedMap(new TreeMap<Integer, Integer>(decades));
+	}
+
+	/**
+	 * @param year a release year
+	 * @return the first year of the year's decade
+	 */
+	public static int decadeOf(int year) {
+		return Math.floorDiv(year, 10) * 10;
+	}
+
+	/**
+	 * @return the number of matching movies
+	 */
+	public int getTotal() {
+		return total;
+	}
+
+	/**
+	 * @param genre a genre
+	 * @return the number of matching movies of the genre
+	 */
+	public int getCount(Genre genre) {
+		return this.genres[genre.ordinal()];
+	}
+
+	/**
+	 * @param rating a rating
+	 * @return the number of matching movies with the rating
+	 */
+	public int getCount(Rating rating) {
+		return this.ratings[rating.ordinal()];
+	}
+
+	/**
+	 * @param decade the first year of a decade, such as 1990
+	 * @return the number of matching movies released in the decade
+	 */
+	public int getDecadeCount(int decade) {
+		Integer count = this.decades.get(decade);
+		return count == null ? 0 : count;
+	}
+
+	/**
+	 * @return the number of matching movies released in each decade holding
+	 *         any, by the decade's first year in ascending order
+	 */
+	public SortedMap<Integer, Integer> getDecades() {
+		return decades;
+	}
+
+	/**
+	 * @return the counts of all genres, ratings and decades
+	 */
+	@Override
+	public String toString() {
+		StringBuilder text = new StringBuilder(this.total + " movies");
+		for (Genre genre : Genre.values()) {
+			text.append(", ").append(genre).append(": ").append(getCount(genre));
+		}
+		for (Rating rating : Rating.values()) {
+			text.append(", ").append(rating).append(": ").append(getCount(rating));
+		}
+		for (Map.Entry<Integer, Integer> decade : this.decades.entrySet()) {
+			text.append(", ").append(decade.getKey()).append("s: ").append(decade.getValue());
+		}
+		return text.toString();
+	}
+}
@@ -0,0 +1,228 @@
+package moviecollection;
+
+import java.util.Arrays;
+
+/**
+ * Column Storage of Movies in Primitive Arrays.
+ *
+ * Every attribute is kept in its own array, indexed by row, and titles are
+ * stored back to back in a single byte array. A store thus holds a handful of
+ * arrays however many movies it holds, and scanning one attribute walks a
+ * single array in order.
+ *
+ * @author Olaf Wrieden
+ * @version 1.0
+ */
+public class HeapMovieStore extends MovieStore {
+
+	// Column Attributes
+	private int[] releaseYears;
+	private byte[] genres;
+	private byte[] ratings;
+	private int[] directors;
+	private byte[] flags;
+	private int[] titleEnds;
+	private byte[] titleBytes;
+	private int[] castEnds;
+	private int[] castMembers;
+
+	// Store Attributes
+	private int rowCount;
+	private int titleLength;
+	private int castCount;
+	private boolean shared;
+
+	/**
+	 * Constructs an empty Heap Movie Store
+	 */
+	public HeapMovieStore() {
+		this(16);
+	}
+
+	/**
+	 * Constructs an empty Heap Movie Store
+	 *
+	 * @param capacity the number of movies to make room for
+	 */
+	public HeapMovieStore(int capacity) {
+		capacity = Math.max(capacity, 1);
+		this.releaseYears = new int[capacity];
+		this.genres = new byte[capacity];
+		this.ratings = new byte[capacity];
+		this.directors = new int[capacity];
+		this.flags = new byte[capacity];
+		this.titleEnds = new int[capacity];
+		this.titleBytes = new byte[capacity * 16];
+		this.castEnds = new int[capacity];
+		this.castMembers = new int[capacity * 4];
+	}
+
+	/**
+	 * Copies the store. The copy shares the arrays of this store, and copies
+	 * them before it appends a movie itself.
+	 *
+	 * @return a copy of the store
+	 */
+	@Override
+	public MovieStore copy() {
+		HeapMovieStore copy = new HeapMovieStore(1);
+		copy.releaseYears = this.releaseYears;
+		copy.genres = this.genres;
+		copy.ratings = this.ratings;
+		copy.directors = this.directors;
+		copy.flags = this.flags;
+		copy.titleEnds = this.titleEnds;
+		copy.titleBytes = this.titleBytes;
+		copy.castEnds = this.castEnds;
+		copy.castMembers = this.castMembers;
+		copy.rowCount = this.rowCount;
+		copy.titleLength = this.titleLength;
+		copy.castCount = this.castCount;
+		copy.shared = true;
+		return copy;
+	}
+
+	/**
+	 * @return the number of movies in the store
+	 */
+	@Override
+	public int size() {
+		return this.rowCount;
+	}
+
+	/**
+	 * Appends a movie as a new row
+	 *
+	 * @param movie the movie to append
+	 * @return the row of the movie
+	 */
+	@Override
+	public int add(Movie movie) {
+		if (this.shared) {
+			// The rows past the shared movies belong to the original store
+			unshare();
+		}
+		int row = this.rowCount;
+		if (row == this.releaseYears.length) {
+			growRows(row * 2);
+		}
+		String title = movie.getTitle();
+		int[] castList = movie.getCastCodes();
+		byte flag = titleFlag(title);
+		if (title != null) {
+			byte[] bytes = title.getBytes(titleCharset(flag));
+			if (this.titleLength + bytes.length > this.titleBytes.length) {
+				this.titleBytes = Arrays.copyOf(this.titleBytes,
+						Math.max(this.titleBytes.length * 2, this.titleLength + bytes.length));
+			}
+			System.arraycopy(bytes, 0, this.titleBytes, this.titleLength, bytes.length);
+			this.titleLength += bytes.length;
+		}
+		if (castList == null) {
+			flag |= NO_CAST;
+		} else {
+			if (this.castCount + castList.length > this.castMembers.length) {
+				this.castMembers = Arrays.copyOf(this.castMembers,
+						Math.max(this.castMembers.length * 2, this.castCount + castList.length));
+			}
+			System.arraycopy(castList, 0, this.castMembers, this.castCount, castList.length);
+			this.castCount += castList.length;
+		}
+		this.releaseYears[row] = movie.getReleaseYear();
+		this.genres[row] = ordinalOf(movie.getGenre());
+		this.ratings[row] = ordinalOf(movie.getRating());
+		this.directors[row] = movie.getDirectorCode();
+		this.flags[row] = flag;
+		this.titleEnds[row] = this.titleLength;
+		this.castEnds[row] = this.castCount;
+		this.rowCount++;
+		return row;
+	}
+
+	/**
+	 * @param row the row of the movie
+	 * @return the movie's title
+	 */
+	@Override
+	public String getTitle(int row) {
+		byte flag = this.flags[checkRow(row)];
+		if ((flag & NO_TITLE) != 0) {
+			return null;
+		}
+		int start = row == 0 ? 0 : this.titleEnds[row - 1];
+		return new String(this.titleBytes, start, this.titleEnds[row] - start, titleCharset(flag));
+	}
+
+	/**
+	 * @param row the row of the movie
+	 * @return the movie's genre
+	 */
+	@Override
+	public Genre getGenre(int row) {
+		return toGenre(this.genres[checkRow(row)]);
+	}
+
+	/**
+	 * @param row the row of the movie
+	 * @return the movie's release year
+	 */
+	@Override
+	public int getReleaseYear(int row) {
+		return this.releaseYears[checkRow(row)];
+	}
+
+	/**
+	 * @param row the row of the movie
+	 * @return the movie's rating
+	 */
+	@Override
+	public Rating getRating(int row) {
+		return toRating(this.ratings[checkRow(row)]);
+	}
+
+	/**
+	 * @param row the row of the movie
+	 * @return the dictionary code of the movie's director
+	 */
+	@Override
+	protected int getDirectorCode(int row) {
+		return this.directors[checkRow(row)];
+	}
+
+	/**
+	 * @param row the row of the movie
+	 * @return new array of the dictionary codes of the movie's cast members
+	 */
+	@Override
+	protected int[] getCastCodes(int row) {
+		if ((this.flags[checkRow(row)] & NO_CAST) != 0) {
+			return null;
+		}
+		int start = row == 0 ? 0 : this.castEnds[row - 1];
+		return Arrays.copyOfRange(this.castMembers, start, this.castEnds[row]);
+	}
+
+	/**
+	 * Gives the store arrays of its own, so it does not append into the rows
+	 * of a copy
+	 */
+	private void unshare() {
+		growRows(this.releaseYears.length);
+		this.titleBytes = this.titleBytes.clone();
+		this.castMembers = this.castMembers.clone();
+		this.shared = false;
+	}
+
+	/**
+	 * @param capacity the number of rows to make room for
+	 */
+	private void growRows(int capacity) {
+		this.releaseYears = Arrays.copyOf(this.releaseYears, capacity);
+		this.genres = Arrays.copyOf(this.genres, capacity);
+		this.ratings = Arrays.copyOf(this.ratings, capacity);
+		this.directors = Arrays.copyOf(this.directors, capacity);
+		this.flags = Arrays.copyOf(this.flags, capacity);
+		this.titleEnds = Arrays.copyOf(this.titleEnds, capacity);
+		this.castEnds = Arrays.copyOf(this.castEnds, capacity);
+	}
+}
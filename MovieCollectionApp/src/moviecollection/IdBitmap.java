@@ -0,0 +1,465 @@
+package moviecollection;
+
+import java.util.Arrays;
+
+/**
+ * Compressed Set of Non-Negative Integer Ids.
+ *
+ * Ids are grouped into blocks of 65536 by their upper 16 bits. A block holding
+ * few ids stores them as a sorted array of their lower 16 bits; once it holds
+ * more than 4096 ids it switches to a plain bitmap of 1024 words, which is then
+ * the smaller of the two. Set operations work block by block, merging array
+ * blocks value by value and combining bitmap blocks a whole word at a time, so
+ * a bitmap is only built for a block that ends up holding more than 4096 ids.
+ *
+ * @author Olaf Wrieden
+ * @version 1.0
+ */
+public class IdBitmap {
+
+	// Blocks holding more ids than this are stored as bitmaps
+	private static final int ARRAY_LIMIT = 4096;
+	private static final int BITMAP_WORDS = 1024;
+
+	// Bitmap Attributes
+	private int[] keys = new int[4];
+	private Object[] blocks = new Object[4];
+	private int[] cardinalities = new int[4];
+	private int blockCount;
+
+	/**
+	 * Constructs an empty Id Bitmap
+	 */
+	public IdBitmap() {
+	}
+
+	/**
+	 * Constructs an Id Bitmap holding the ids
+	 *
+	 * @param ids the ids to hold
+	 */
+	public IdBitmap(int... ids) {
+		for (int id : ids) {
+			add(id);
+		}
+	}
+
+	/**
+	 * Adds an id to the set
+	 *
+	 * @param id the id to add
+	 */
+	public void add(int id) {
+		int index = blockIndex(id >>> 16);
+		if (index < 0) {
+			index = -index - 1;
+			insertBlock(index, id >>> 16, new char[4], 0);
+		}
+		char low = (char) id;
+		Object block = this.blocks[index];
+		if (block instanceof long[]) {
+			long[] words = (long[]) block;
+			if ((words[low >>> 6] & (1L << low)) == 0) {
+				words[low >>> 6] |= 1L << low;
+				this.cardinalities[index]++;
+			}
+			return;
+		}
+		char[] values = (char[]) block;
+		int cardinality = this.cardinalities[index];
+		int position = Arrays.binarySearch(values, 0, cardinality, low);
+		if (position >= 0) {
+			return;
+		}
+		position = -position - 1;
+		if (cardinality == ARRAY_LIMIT) {
+			long[] words = toWords(values, cardinality);
+			words[low >>> 6] |= 1L << low;
+			this.blocks[index] = words;
+		} else {
+			if (cardinality == values.length) {
+				values = Arrays.copyOf(values, Math.min(ARRAY_LIMIT, cardinality * 2));
+				this.blocks[index] = values;
+			}
+			System.arraycopy(values, position, values, position + 1, cardinality - position);
+			values[position] = low;
+		}
+		this.cardinalities[index]++;
+	}
+
+	/**
+	 * Removes an id from the set
+	 *
+	 * @param id the id to remove
+	 */
+	public void remove(int id) {
+		int index = blockIndex(id >>> 16);
+		if (index < 0) {
+			return;
+		}
+		char low = (char) id;
+		Object block = this.blocks[index];
+		int cardinality = this.cardinalities[index];
+		if (block instanceof long[]) {
+			long[] words = (long[]) block;
+			if ((words[low >>> 6] & (1L << low)) == 0) {
+				return;
+			}
+			words[low >>> 6] &= ~(1L << low);
+			if (cardinality - 1 <= ARRAY_LIMIT) {
+				this.blocks[index] = toValues(words, cardinality - 1);
+			}
+		} else {
+			char[] values = (char[]) block;
+			int position = Arrays.binarySearch(values, 0, cardinality, low);
+			if (position < 0) {
+				return;
+			}
+			System.arraycopy(values, position + 1, values, position, cardinality - position - 1);
+		}
+		if (--this.cardinalities[index] == 0) {
+			removeBlock(index);
+		}
+	}
+
+	/**
+	 * @param id the id to look for
+	 * @return true if the set holds the id, else false
+	 */
+	public boolean contains(int id) {
+		int index = blockIndex(id >>> 16);
+		return index >= 0 && blockContains(index, (char) id);
+	}
+
+	/**
+	 * @return the number of ids in the set
+	 */
+	public int cardinality() {
+		int cardinality = 0;
+		for (int i = 0; i < this.blockCount; i++) {
+			cardinality += this.cardinalities[i];
+		}
+		return cardinality;
+	}
+
+	/**
+	 * @return true if the set holds no ids, else false
+	 */
+	public boolean isEmpty() {
+		return this.blockCount == 0;
+	}
+
+	/**
+	 * @return a copy of the set
+	 */
+	public IdBitmap copy() {
+		IdBitmap copy = new IdBitmap();
+		copy.keys = Arrays.copyOf(this.keys, this.keys.length);
+		copy.cardinalities = Arrays.copyOf(this.cardinalities, this.cardinalities.length);
+		copy.blocks = new Object[this.blocks.length];
+		for (int i = 0; i < this.blockCount; i++) {
+			copy.blocks[i] = copyBlock(this.blocks[i]);
+		}
+		copy.blockCount = this.blockCount;
+		return copy;
+	}
+
+	/**
+	 * @param other another set
+	 * @return a new set holding the ids found in both sets
+	 */
+	public IdBitmap and(IdBitmap other) {
+		IdBitmap result = new IdBitmap();
+		for (int i = 0, j = 0; i < this.blockCount && j < other.blockCount;) {
+			if (this.keys[i] < other.keys[j]) {
+				i++;
+			} else if (this.keys[i] > other.keys[j]) {
+				j++;
+			} else if (this.blocks[i] instanceof long[] && other.blocks[j] instanceof long[]) {
+				long[] words = ((long[]) this.blocks[i]).clone();
+				long[] otherWords = (long[]) other.blocks[j];
+				for (int w = 0; w < BITMAP_WORDS; w++) {
+					words[w] &= otherWords[w];
+				}
+				result.appendBlock(this.keys[i], words);
+				i++;
+				j++;
+			} else {
+				// Keep the values of the smaller array block found in the other block
+				boolean small = this.blocks[i] instanceof char[]
+						&& (other.blocks[j] instanceof long[] || this.cardinalities[i] <= other.cardinalities[j]);
+				IdBitmap source = small ? this : other;
+				IdBitmap target = small ? other : this;
+				int s = small ? i : j;
+				int t = small ? j : i;
+				char[] values = (char[]) source.blocks[s];
+				char[] kept = new char[Math.max(source.cardinalities[s], 4)];
+				int count = 0;
+				for (int v = 0; v < source.cardinalities[s]; v++) {
+					if (target.blockContains(t, values[v])) {
+						kept[count++] = values[v];
+					}
+				}
+				if (count > 0) {
+					result.insertBlock(result.blockCount, this.keys[i], kept, count);
+				}
+				i++;
+				j++;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @param other another set
+	 * @return a new set holding the ids found in either set
+	 */
+	public IdBitmap or(IdBitmap other) {
+		IdBitmap result = new IdBitmap();
+		int i = 0;
+		int j = 0;
+		while (i < this.blockCount || j < other.blockCount) {
+			if (j == other.blockCount || (i < this.blockCount && this.keys[i] < other.keys[j])) {
+				result.insertBlock(result.blockCount, this.keys[i], copyBlock(this.blocks[i]), this.cardinalities[i]);
+				i++;
+			} else if (i == this.blockCount || this.keys[i] > other.keys[j]) {
+				result.insertBlock(result.blockCount, other.keys[j], copyBlock(other.blocks[j]),
+						other.cardinalities[j]);
+				j++;
+			} else if (this.blocks[i] instanceof char[] && other.blocks[j] instanceof char[]
+					&& this.cardinalities[i] + other.cardinalities[j] <= ARRAY_LIMIT) {
+				// Merge two small array blocks, which cannot outgrow an array
+				char[] values = (char[]) this.blocks[i];
+				char[] otherValues = (char[]) other.blocks[j];
+				int cardinality = this.cardinalities[i];
+				int otherCardinality = other.cardinalities[j];
+				char[] merged = new char[Math.max(cardinality + otherCardinality, 4)];
+				int count = 0;
+				int v = 0;
+				int o = 0;
+				while (v < cardinality || o < otherCardinality) {
+					if (o == otherCardinality || (v < cardinality && values[v] < otherValues[o])) {
+						merged[count++] = values[v++];
+					} else if (v == cardinality || values[v] > otherValues[o]) {
+						merged[count++] = otherValues[o++];
+					} else {
+						merged[count++] = values[v++];
+						o++;
+					}
+				}
+				result.insertBlock(result.blockCount, this.keys[i], merged, count);
+				i++;
+				j++;
+			} else {
+				// Add the ids of the smaller block to a bitmap of the larger one
+				boolean larger = this.blocks[i] instanceof long[]
+						|| (other.blocks[j] instanceof char[] && this.cardinalities[i] >= other.cardinalities[j]);
+				long[] words = larger ? toWords(this.blocks[i], this.cardinalities[i])
+						: toWords(other.blocks[j], other.cardinalities[j]);
+				Object smaller = larger ? other.blocks[j] : this.blocks[i];
+				int smallerCardinality = larger ? other.cardinalities[j] : this.cardinalities[i];
+				if (smaller instanceof long[]) {
+					long[] otherWords = (long[]) smaller;
+					for (int w = 0; w < BITMAP_WORDS; w++) {
+						words[w] |= otherWords[w];
+					}
+				} else {
+					char[] values = (char[]) smaller;
+					for (int v = 0; v < smallerCardinality; v++) {
+						words[values[v] >>> 6] |= 1L << values[v];
+					}
+				}
+				result.appendBlock(this.keys[i], words);
+				i++;
+				j++;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @param other another set
+	 * @return a new set holding the ids of this set not found in the other set
+	 */
+	public IdBitmap andNot(IdBitmap other) {
+		IdBitmap result = new IdBitmap();
+		for (int i = 0, j = 0; i < this.blockCount; i++) {
+			while (j < other.blockCount && other.keys[j] < this.keys[i]) {
+				j++;
+			}
+			if (j == other.blockCount || other.keys[j] != this.keys[i]) {
+				result.insertBlock(result.blockCount, this.keys[i], copyBlock(this.blocks[i]), this.cardinalities[i]);
+			} else if (this.blocks[i] instanceof char[]) {
+				// Keep the values of the array block missing from the other block
+				char[] values = (char[]) this.blocks[i];
+				char[] kept = new char[Math.max(this.cardinalities[i], 4)];
+				int count = 0;
+				for (int v = 0; v < this.cardinalities[i]; v++) {
+					if (!other.blockContains(j, values[v])) {
+						kept[count++] = values[v];
+					}
+				}
+				if (count > 0) {
+					result.insertBlock(result.blockCount, this.keys[i], kept, count);
+				}
+			} else {
+				long[] words = ((long[]) this.blocks[i]).clone();
+				if (other.blocks[j] instanceof long[]) {
+					long[] otherWords = (long[]) other.blocks[j];
+					for (int w = 0; w < BITMAP_WORDS; w++) {
+						words[w] &= ~otherWords[w];
+					}
+				} else {
+					char[] otherValues = (char[]) other.blocks[j];
+					for (int v = 0; v < other.cardinalities[j]; v++) {
+						words[otherValues[v] >>> 6] &= ~(1L << otherValues[v]);
+					}
+				}
+				result.appendBlock(this.keys[i], words);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return the ids of the set in ascending order
+	 */
+	public int[] toArray() {
+		int[] ids = new int[cardinality()];
+		int count = 0;
+		for (int i = 0; i < this.blockCount; i++) {
+			int high = this.keys[i] << 16;
+			Object block = this.blocks[i];
+			if (block instanceof long[]) {
+				long[] words = (long[]) block;
+				for (int w = 0; w < BITMAP_WORDS; w++) {
+					for (long bits = words[w]; bits != 0; bits &= bits - 1) {
+						ids[count++] = high | (w << 6) | Long.numberOfTrailingZeros(bits);
+					}
+				}
+			} else {
+				char[] values = (char[]) block;
+				for (int v = 0; v < this.cardinalities[i]; v++) {
+					ids[count++] = high | values[v];
+				}
+			}
+		}
+		return ids;
+	}
+
+	/**
+	 * Appends a block computed by a set operation, storing it in the smaller of
+	 * its two forms
+	 *
+	 * @param key   the upper 16 bits of the block's ids
+	 * @param words the block as a bitmap
+	 */
+	private void appendBlock(int key, long[] words) {
+		int cardinality = 0;
+		for (long word : words) {
+			cardinality += Long.bitCount(word);
+		}
+		if (cardinality > 0) {
+			insertBlock(this.blockCount, key, cardinality > ARRAY_LIMIT ? words : toValues(words, cardinality),
+					cardinality);
+		}
+	}
+
+	/**
+	 * @param index the position of a block
+	 * @param low   the lower 16 bits of an id
+	 * @return true if the block holds the id, else false
+	 */
+	private boolean blockContains(int index, char low) {
+		Object block = this.blocks[index];
+		if (block instanceof long[]) {
+			return (((long[]) block)[low >>> 6] & (1L << low)) != 0;
+		}
+		return Arrays.binarySearch((char[]) block, 0, this.cardinalities[index], low) >= 0;
+	}
+
+	/**
+	 * @param key the upper 16 bits of an id
+	 * @return the index of the block holding the key, or (-(insertion point) - 1)
+	 */
+	private int blockIndex(int key) {
+		return Arrays.binarySearch(this.keys, 0, this.blockCount, key);
+	}
+
+	/**
+	 * Inserts a block into the set
+	 *
+	 * @param index       the position of the block
+	 * @param key         the upper 16 bits of the block's ids
+	 * @param block       the block's ids
+	 * @param cardinality the number of ids in the block
+	 */
+	private void insertBlock(int index, int key, Object block, int cardinality) {
+		if (this.blockCount == this.keys.length) {
+			this.keys = Arrays.copyOf(this.keys, this.blockCount * 2);
+			this.blocks = Arrays.copyOf(this.blocks, this.blockCount * 2);
+			this.cardinalities = Arrays.copyOf(this.cardinalities, this.blockCount * 2);
+		}
+		System.arraycopy(this.keys, index, this.keys, index + 1, this.blockCount - index);
+		System.arraycopy(this.blocks, index, this.blocks, index + 1, this.blockCount - index);
+		System.arraycopy(this.cardinalities, index, this.cardinalities, index + 1, this.blockCount - index);
+		this.keys[index] = key;
+		this.blocks[index] = block;
+		this.cardinalities[index] = cardinality;
+		this.blockCount++;
+	}
+
+	/**
+	 * Removes an empty block from the set
+	 *
+	 * @param index the position of the block
+	 */
+	private void removeBlock(int index) {
+		System.arraycopy(this.keys, index + 1, this.keys, index, this.blockCount - index - 1);
+		System.arraycopy(this.blocks, index + 1, this.blocks, index, this.blockCount - index - 1);
+		System.arraycopy(this.cardinalities, index + 1, this.cardinalities, index, this.blockCount - index - 1);
+		this.blockCount--;
+		this.blocks[this.blockCount] = null;
+	}
+
+	/**
+	 * @param block a block in either form
+	 * @return a copy of the block in the same form
+	 */
+	private static Object copyBlock(Object block) {
+		return block instanceof long[] ? ((long[]) block).clone() : ((char[]) block).clone();
+	}
+
+	/**
+	 * @param block       a block in either form
+	 * @param cardinality the number of ids in the block
+	 * @return a new bitmap of the block's ids
+	 */
+	private static long[] toWords(Object block, int cardinality) {
+		if (block instanceof long[]) {
+			return ((long[]) block).clone();
+		}
+		long[] words = new long[BITMAP_WORDS];
+		char[] values = (char[]) block;
+		for (int i = 0; i < cardinality; i++) {
+			words[values[i] >>> 6] |= 1L << values[i];
+		}
+		return words;
+	}
+
+	/**
+	 * @param words       a bitmap block
+	 * @param cardinality the number of ids in the block
+	 * @return the block's ids as a sorted array
+	 */
+	private static char[] toValues(long[] words, int cardinality) {
+		char[] values = new char[Math.max(cardinality, 4)];
+		int count = 0;
+		for (int w = 0; w < words.length; w++) {
+			for (long bits = words[w]; bits != 0; bits &= bits - 1) {
+				values[count++] = (char) ((w << 6) | Long.numberOfTrailingZeros(bits));
+			}
+		}
+		return values;
+	}
+}
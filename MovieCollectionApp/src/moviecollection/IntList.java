@@ -0,0 +1,125 @@
+package moviecollection;
+
+import java.util.Arrays;
+
+/**
+ * Growable List of Primitive Integers.
+ *
+ * @author Olaf Wrieden
+ * @version 1.0
+ */
+public class IntList {
+
+	// List Attributes
+	private int[] values;
+	private int size;
+
+	/**
+	 * Constructs an empty Integer List
+	 */
+	public IntList() {
+		this(16);
+	}
+
+	/**
+	 * Constructs an empty Integer List
+	 *
+	 * @param capacity the initial number of values the list can hold
+	 */
+	public IntList(int capacity) {
+		this.values = new int[Math.max(capacity, 1)];
+	}
+
+	/**
+	 * Appends a value to the end of the list
+	 *
+	 * @param value the value to append
+	 */
+	public void add(int value) {
+		if (this.size == this.values.length) {
+			this.values = Arrays.copyOf(this.values, this.size * 2);
+		}
+		this.values[this.size++] = value;
+	}
+
+	/**
+	 * @param index the position of the value
+	 * @return the value at the position
+	 */
+	public int get(int index) {
+		if (index >= this.size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+		}
+		return this.values[index];
+	}
+
+	/**
+	 * Inserts a value at a position, shifting later values up
+	 *
+	 * @param index the position to insert the value at
+	 * @param value the value to insert
+	 */
+	public void insert(int index, int value) {
+		if (index > this.size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+		}
+		if (this.size == this.values.length) {
+			this.values = Arrays.copyOf(this.values, this.size * 2);
+		}
+		System.arraycopy(this.values, index, this.values, index + 1, this.size - index);
+		this.values[index] = value;
+		this.size++;
+	}
+
+	/**
+	 * Removes the value at the position, shifting later values down
+	 *
+	 * @param index the position of the value to remove
+	 * @return the removed value
+	 */
+	public int removeAt(int index) {
+		int value = get(index);
+		System.arraycopy(this.values, index + 1, this.values, index, this.size - index - 1);
+		this.size--;
+		return value;
+	}
+
+	/**
+	 * Searches a list sorted in ascending order for a value
+	 *
+	 * @param value the value to search for
+	 * @return the position of the value, or (-(insertion point) - 1) if the list
+	 *         does not hold it
+	 */
+	public int binarySearch(int value) {
+		return Arrays.binarySearch(this.values, 0, this.size, value);
+	}
+
+	/**
+	 * Removes all values from the list
+	 */
+	public void clear() {
+		this.size = 0;
+	}
+
+	/**
+	 * @return the number of values in the list
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * @return true if the list holds no values, else false
+	 */
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	/**
+	 * @return a copy of the list's values
+	 */
+	public int[] toArray() {
+		return Arrays.copyOf(this.values, this.size);
+	}
+}
@@ -0,0 +1,81 @@
+package moviecollection;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+
+/**
+ * Converts data files written with Java serialization into movie snapshots.
+ *
+ * @author Olaf Wrieden
+ * @version 1.0
+ */
+public class LegacyDataMigrator {
+
+	// Migrator Attributes
+	public static final String BACKUP_SUFFIX = ".legacy";
+
+	/**
+	 * Prevents instantiation of this utility class
+	 */
+	private LegacyDataMigrator() {
+	}
+
+	/**
+	 * Converts the data file into a snapshot if it still holds serialized
+	 * movies. The original file is kept with the backup suffix appended.
+	 *
+	 * @param file the data file to migrate
+	 * @return the number of migrated movies, or -1 if no migration was needed
+	 * @throws IOException if the legacy data file could not be converted
+	 */
+	public static int migrate(File file) throws IOException {
+		if (!file.exists() || file.length() == 0 || MovieSnapshot.isSnapshot(file)) {
+			return -1;
+		}
+
+		// Read the serialized movies until the end of the file
+		ArrayList<Movie> movies = new ArrayList<Movie>();
+		try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			while (true) {
+				movies.add((Movie) in.readObject());
+			}
+		} catch (EOFException eof) {
+			// End of the legacy data file
+		} catch (ClassNotFoundException | ClassCastException e) {
+			throw new IOException(file.getName() + " does not contain a movie collection", e);
+		}
+
+		// Keep the legacy file, then replace it with the snapshot
+		Files.copy(file.toPath(), new File(file.getPath() + BACKUP_SUFFIX).toPath(),
+				StandardCopyOption.REPLACE_EXISTING);
+		MovieSnapshot.write(movies, file);
+		return movies.size();
+	}
+
+	/**
+	 * Migrates the data files given as arguments
+	 *
+	 * @param args the paths of the data files to migrate
+	 */
+	public static void main(String[] args) {
+		for (String path : args) {
+			try {
+				int count = migrate(new File(path));
+				if (count == -1) {
+					System.out.println(path + " does not need to be migrated.");
+				} else {
+					System.out.println("MIGRATED: " + count + " movies in " + path);
+				}
+			} catch (IOException e) {
+				System.err.println(path + " could not be migrated: " + e.getMessage());
+			}
+		}
+	}
+}
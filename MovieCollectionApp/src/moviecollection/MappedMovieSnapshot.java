@@ -0,0 +1,286 @@
+package moviecollection;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Memory-Mapped, Read-Only View of a Movie Snapshot.
+ *
+ * Opening a snapshot only maps the file and reads its header. Attributes are
+ * decoded straight from the mapped columns when they are requested, so no
+ * movie is allocated until it is actually used.
+ *
+ * @author Olaf Wrieden
+ * @version 1.0
+ * @see MovieSnapshot
+ */
+public class MappedMovieSnapshot {
+
+	// Files larger than a single mapping are mapped in segments
+	private static final int SEGMENT_BITS = 30;
+	private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+	private static final int PAGE_SIZE = 4096;
+
+	// Values of the Ordinals
+	private static final Genre[] GENRES = Genre.values();
+	private static final Rating[] RATINGS = Rating.values();
+
+	// Snapshot Attributes
+	private final MappedByteBuffer[] segments;
+	private final long generation;
+	private final int rowCount;
+	private int prefetched;
+
+	// Section Positions
+	private final long stringOffsetsPosition;
+	private final long stringsPosition;
+	private final long titlePosition;
+	private final long directorPosition;
+	private final long castOffsetsPosition;
+	private final long castMembersPosition;
+	private final long releaseYearPosition;
+	private final long genrePosition;
+	private final long ratingPosition;
+
+	/**
+	 * Constructs a Mapped Snapshot from the file's mapped segments
+	 *
+	 * @param segments the mapped segments of the file
+	 * @param length   the length of the file
+	 * @throws IOException if the file is not a valid snapshot
+	 */
+	private MappedMovieSnapshot(MappedByteBuffer[] segments, long length) throws IOException {
+		this.segments = segments;
+		if (length < 8 || getInt(0) != MovieSnapshot.MAGIC) {
+			throw new IOException("The data file is not a movie collection snapshot");
+		}
+		int version = getInt(4);
+		if (!MovieSnapshot.isSupported(version)) {
+			throw new IOException("Unsupported snapshot version " + version);
+		}
+		long header = MovieSnapshot.headerSize(version);
+		if (length < header) {
+			throw new IOException("The data file is truncated");
+		}
+		this.generation = version == 1 ? 0 : ((long) getInt(8) << 32) | (getInt(12) & 0xFFFFFFFFL);
+		this.rowCount = getInt(header - 16);
+		int stringCount = getInt(header - 12);
+		int castCount = getInt(header - 8);
+		int stringBytes = getInt(header - 4);
+
+		// Locate the sections behind the header
+		this.stringOffsetsPosition = header;
+		this.stringsPosition = this.stringOffsetsPosition + 4L * (stringCount + 1);
+		this.titlePosition = this.stringsPosition + stringBytes;
+		this.directorPosition = this.titlePosition + 4L * this.rowCount;
+		this.castOffsetsPosition = this.directorPosition + 4L * this.rowCount;
+		this.castMembersPosition = this.castOffsetsPosition + 4L * (this.rowCount + 1);
+		this.releaseYearPosition = this.castMembersPosition + 4L * castCount;
+		this.genrePosition = this.releaseYearPosition + 4L * this.rowCount;
+		this.ratingPosition = this.genrePosition + this.rowCount;
+		if (this.ratingPosition + this.rowCount > length) {
+			throw new IOException("The data file is truncated");
+		}
+	}
+
+	/**
+	 * Maps a snapshot file into memory
+	 *
+	 * @param file the snapshot file to map
+	 * @return the mapped snapshot
+	 * @throws IOException if the file could not be mapped or is not a snapshot
+	 */
+	public static MappedMovieSnapshot open(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long length = channel.size();
+			MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((length + SEGMENT_SIZE - 1) >>> SEGMENT_BITS)];
+			for (int i = 0; i < segments.length; i++) {
+				long start = (long) i << SEGMENT_BITS;
+				segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, length - start));
+			}
+			return new MappedMovieSnapshot(segments, length);
+		}
+	}
+
+	/**
+	 * @return the first journal generation not folded into the snapshot
+	 */
+	public long getGeneration() {
+		return this.generation;
+	}
+
+	/**
+	 * @return the number of movies in the snapshot
+	 */
+	public int size() {
+		return this.rowCount;
+	}
+
+	/**
+	 * Decodes the movie at the row
+	 *
+	 * @param row the row of the movie
+	 * @return a new movie holding the row's attributes
+	 */
+	public Movie getMovie(int row) {
+		return new Movie(getTitle(row), getDirector(row), getGenre(row), getReleaseYear(row), getRating(row),
+				getCastList(row));
+	}
+
+	/**
+	 * @param row the row of the movie
+	 * @return the movie's title
+	 */
+	public String getTitle(int row) {
+		return getString(getInt(this.titlePosition + 4L * checkRow(row)));
+	}
+
+	/**
+	 * @param row the row of the movie
+	 * @return the movie's director
+	 */
+	public String getDirector(int row) {
+		return getString(getInt(this.directorPosition + 4L * checkRow(row)));
+	}
+
+	/**
+	 * @param row the row of the movie
+	 * @return the movie's genre
+	 */
+	public Genre getGenre(int row) {
+		return GENRES[getByte(this.genrePosition + checkRow(row))];
+	}
+
+	/**
+	 * @param row the row of the movie
+	 * @return the movie's release year
+	 */
+	public int getReleaseYear(int row) {
+		return getInt(this.releaseYearPosition + 4L * checkRow(row));
+	}
+
+	/**
+	 * @param row the row of the movie
+	 * @return the movie's rating
+	 */
+	public Rating getRating(int row) {
+		return RATINGS[getByte(this.ratingPosition + checkRow(row))];
+	}
+
+	/**
+	 * @param row the row of the movie
+	 * @return the movie's cast list
+	 */
+	public String[] getCastList(int row) {
+		long position = this.castOffsetsPosition + 4L * checkRow(row);
+		int start = getInt(position);
+		String[] castList = new String[getInt(position + 4) - start];
+		for (int i = 0; i < castList.length; i++) {
+			castList[i] = getString(getInt(this.castMembersPosition + 4L * (start + i)));
+		}
+		return castList;
+	}
+
+	/**
+	 * Reads the pages of the file holding the rows, so that accessing the rows
+	 * later does not have to wait for the disk
+	 *
+	 * @param fromRow the first row to prefetch (inclusive)
+	 * @param toRow   the last row to prefetch (exclusive)
+	 */
+	public void prefetch(int fromRow, int toRow) {
+		int sum = 0;
+		sum += touch(this.titlePosition + 4L * fromRow, this.titlePosition + 4L * toRow);
+		sum += touch(this.directorPosition + 4L * fromRow, this.directorPosition + 4L * toRow);
+		sum += touch(this.castOffsetsPosition + 4L * fromRow, this.castOffsetsPosition + 4L * (toRow + 1));
+		long castStart = getInt(this.castOffsetsPosition + 4L * fromRow);
+		long castEnd = getInt(this.castOffsetsPosition + 4L * toRow);
+		sum += touch(this.castMembersPosition + 4L * castStart, this.castMembersPosition + 4L * castEnd);
+		sum += touch(this.releaseYearPosition + 4L * fromRow, this.releaseYearPosition + 4L * toRow);
+		sum += touch(this.genrePosition + fromRow, this.genrePosition + toRow);
+		sum += touch(this.ratingPosition + fromRow, this.ratingPosition + toRow);
+
+		// Strings are stored in the order they are first used, so they follow the rows
+		if (this.rowCount > 0) {
+			long offsetBytes = this.stringsPosition - this.stringOffsetsPosition;
+			long stringBytes = this.titlePosition - this.stringsPosition;
+			sum += touch(this.stringOffsetsPosition + offsetBytes * fromRow / this.rowCount,
+					this.stringOffsetsPosition + offsetBytes * toRow / this.rowCount);
+			sum += touch(this.stringsPosition + stringBytes * fromRow / this.rowCount,
+					this.stringsPosition + stringBytes * toRow / this.rowCount);
+		}
+		this.prefetched += sum;
+	}
+
+	/**
+	 * Reads one byte of every page in the range
+	 *
+	 * @param from the first file position (inclusive)
+	 * @param to   the last file position (exclusive)
+	 * @return the sum of the bytes read
+	 */
+	private int touch(long from, long to) {
+		int sum = 0;
+		for (long position = from; position < to; position += PAGE_SIZE) {
+			sum += getByte(position);
+		}
+		return sum;
+	}
+
+	/**
+	 * Decodes a string of the string table
+	 *
+	 * @param reference the string table reference
+	 * @return the referenced string, or null for a missing value
+	 */
+	private String getString(int reference) {
+		if (reference == -1) {
+			return null;
+		}
+		long position = this.stringOffsetsPosition + 4L * reference;
+		int start = getInt(position);
+		byte[] bytes = new byte[getInt(position + 4) - start];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = getByte(this.stringsPosition + start + i);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @param row the row to check
+	 * @return the row, if it exists in the snapshot
+	 */
+	private int checkRow(int row) {
+		if (row < 0 || row >= this.rowCount) {
+			throw new IndexOutOfBoundsException("Row: " + row + ", Size: " + this.rowCount);
+		}
+		return row;
+	}
+
+	/**
+	 * @param position the file position to read from
+	 * @return the byte at the position
+	 */
+	private byte getByte(long position) {
+		return this.segments[(int) (position >>> SEGMENT_BITS)].get((int) (position & (SEGMENT_SIZE - 1)));
+	}
+
+	/**
+	 * @param position the file position to read from
+	 * @return the big-endian integer at the position
+	 */
+	private int getInt(long position) {
+		MappedByteBuffer segment = this.segments[(int) (position >>> SEGMENT_BITS)];
+		int offset = (int) (position & (SEGMENT_SIZE - 1));
+		if (offset + 4 <= segment.limit()) {
+			return segment.getInt(offset);
+		}
+		// The integer straddles two segments
+		return ((getByte(position) & 0xFF) << 24) | ((getByte(position + 1) & 0xFF) << 16)
+				| ((getByte(position + 2) & 0xFF) << 8) | (getByte(position + 3) & 0xFF);
+	}
+}
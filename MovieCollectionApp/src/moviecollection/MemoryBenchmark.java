@@ -0,0 +1,97 @@
+package moviecollection;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+
+/**
+ * Benchmark of the Memory and File Size of a Generated Collection.
+ *
+ * Run with {@code java moviecollection.MemoryBenchmark [movies]}; the
+ * collection holds one million movies unless another size is given.
+ *
+ * @author Olaf Wrieden
+ * @version 1.0
+ */
+public class MemoryBenchmark {
+
+	// Benchmark Settings
+	private static final int DEFAULT_MOVIES = 1000000;
+
+	/**
+	 * Prevents instantiation of this utility class
+	 */
+	private MemoryBenchmark() {
+	}
+
+	/**
+	 * Runs the benchmark
+	 *
+	 * @param args optionally, the number of movies to generate
+	 * @throws IOException if the collection could not be written
+	 */
+	public static void main(String[] args) throws IOException {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MOVIES;
+		System.out.printf("Measuring %,d movies%n", size);
+
+		long before = usedMemory();
+		MovieList movies = SearchEngineBenchmark.generate(size, 42);
+		long after = usedMemory();
+		System.out.printf("%-30s %,14d bytes (%,d per movie)%n", "Heap", after - before, (after - before) / size);
+
+		// Serialize the movies as the legacy data file did
+		CountingOutputStream counter = new CountingOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(counter)) {
+			for (Movie movie : movies) {
+				out.writeObject(movie);
+			}
+		}
+		System.out.printf("%-30s %,14d bytes%n", "Serialized", counter.count);
+
+		File snapshot = File.createTempFile("movies", ".bin");
+		try {
+			MovieSnapshot.write(movies, snapshot);
+			System.out.printf("%-30s %,14d bytes%n", "Snapshot", snapshot.length());
+		} finally {
+			snapshot.delete();
+		}
+
+		// Move the movies out of the heap; the dictionary of names stays on it
+		MovieList offHeap = new MovieList(null, true);
+		offHeap.addAll(movies);
+		movies = null;
+		long offHeapAfter = usedMemory();
+		System.out.printf("%-30s %,14d bytes (%,d per movie)%n", "Heap with off-heap store", offHeapAfter - before,
+				(offHeapAfter - before) / offHeap.size());
+	}
+
+	/**
+	 * @return the heap used after collecting garbage
+	 */
+	private static long usedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 4; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/**
+	 * Output Stream Counting the Bytes Written to it.
+	 */
+	private static class CountingOutputStream extends OutputStream {
+
+		private long count;
+
+		@Override
+		public void write(int b) {
+			this.count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			this.count += len;
+		}
+	}
+}
@@ -1,22 +1,38 @@
 package moviecollection;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
+import java.util.ArrayList;
 
 /**
  * Information about an individual Movie.
  * 
+ * The names of the director and the cast members are kept in the shared
+ * {@link StringDictionary#NAMES} dictionary, so a movie only holds their codes
+ * and every name is stored once, however many movies share it.
+ * 
  * @author Olaf Wrieden
  * @version 1.0
  */
 public class Movie implements Serializable {
 
+	// Kept in line with data files written before the snapshot format
+	private static final long serialVersionUID = -3732441319254436623L;
+	private static final ObjectStreamField[] serialPersistentFields = { new ObjectStreamField("title", String.class),
+			new ObjectStreamField("director", String.class), new ObjectStreamField("genre", Genre.class),
+			new ObjectStreamField("releaseYear", int.class), new ObjectStreamField("rating", Rating.class),
+			new ObjectStreamField("castList", String[].class) };
+
 	// Movie Attributes
 	private String title;
-	private String director;
+	private int director;
 	private Genre genre;
 	private int releaseYear;
 	private Rating rating;
-	private String[] castList;
+	private int[] castList;
 
 	/**
 	 * Constructs a Movie object
@@ -37,6 +53,26 @@ public class Movie implements Serializable {
 		this.setCastList(castList);
 	}
 
+	/**
+	 * Constructs a Movie from the dictionary codes of its names
+	 * 
+	 * @param title       the name of the movie
+	 * @param director    the dictionary code of the movie's director
+	 * @param genre       the genre of the movie
+	 * @param releaseYear the movie's year of release
+	 * @param rating      the movie's rating
+	 * @param castList    the dictionary codes of the cast in this movie, which
+	 *                    the movie takes over
+	 */
+	Movie(String title, int director, Genre genre, int releaseYear, Rating rating, int[] castList) {
+		this.title = title;
+		this.director = director;
+		this.genre = genre;
+		this.releaseYear = releaseYear;
+		this.rating = rating;
+		this.castList = castList;
+	}
+
 	/**
 	 * @return the movie's title
 	 */
@@ -55,14 +91,29 @@ public class Movie implements Serializable {
 	 * @return the movie's director
 	 */
 	public String getDirector() {
-		return director;
+		return StringDictionary.NAMES.decode(this.director);
 	}
 
 	/**
 	 * @param director the movie's director to set
 	 */
 	public void setDirector(String director) {
-		this.director = director;
+		this.director = StringDictionary.NAMES.encode(director);
+	}
+
+	/**
+	 * @return the dictionary code of the movie's director
+	 */
+	public int getDirectorCode() {
+		return director;
+	}
+
+	/**
+	 * @param movie the movie to compare with
+	 * @return true if both movies have the same director, else false
+	 */
+	public boolean hasSameDirector(Movie movie) {
+		return this.director == movie.director;
 	}
 
 	/**
@@ -111,6 +162,13 @@ public class Movie implements Serializable {
 	 * @return the movie's castList
 	 */
 	public String[] getCastList() {
+		if (this.castList == null) {
+			return null;
+		}
+		String[] castList = new String[this.castList.length];
+		for (int i = 0; i < castList.length; i++) {
+			castList[i] = StringDictionary.NAMES.decode(this.castList[i]);
+		}
 		return castList;
 	}
 
@@ -118,21 +176,97 @@ public class Movie implements Serializable {
 	 * @param castList the movie's castList to set
 	 */
 	public void setCastList(String[] castList) {
-		this.castList = castList;
+		if (castList == null) {
+			this.castList = null;
+			return;
+		}
+		this.castList = new int[castList.length];
+		for (int i = 0; i < castList.length; i++) {
+			this.castList[i] = StringDictionary.NAMES.encode(castList[i]);
+		}
+	}
+
+	/**
+	 * @return the dictionary codes of the movie's cast members
+	 */
+	public int[] getCastCodes() {
+		return this.castList == null ? null : this.castList.clone();
+	}
+
+	/**
+	 * @param member the name of a cast member
+	 * @return true if the member is part of the movie's cast, else false
+	 */
+	public boolean hasCastMember(String member) {
+		int code = StringDictionary.NAMES.find(member);
+		if (code == StringDictionary.NULL || this.castList == null) {
+			return false;
+		}
+		for (int castCode : this.castList) {
+			if (castCode == code) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	/**
 	 * @return a string representation of the movie's cast list
 	 */
 	public String getStringCastList() {
-		String list = "";
-		for (int i = 0; i < castList.length; i++) {
-			list += castList[i];
-			if (i < castList.length - 1) {
-				list += ", ";
+		return String.join(", ", getCastList());
+	}
+
+	/**
+	 * Splits a comma-separated list of cast members
+	 * 
+	 * @param castList the comma-separated cast members
+	 * @return the cast members, without surrounding whitespace or empty names
+	 */
+	public static String[] parseCastList(String castList) {
+		ArrayList<String> members = new ArrayList<String>();
+		for (String member : castList.split(",")) {
+			if (!member.trim().isEmpty()) {
+				members.add(member.trim());
 			}
 		}
-		return list;
+		return members.toArray(new String[members.size()]);
+	}
+
+	/**
+	 * Writes the movie with its names, in the form of data files written before
+	 * names were kept in a dictionary
+	 * 
+	 * @param out the stream to write to
+	 * @throws IOException if the movie could not be written
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		ObjectOutputStream.PutField fields = out.putFields();
+		fields.put("title", this.title);
+		fields.put("director", getDirector());
+		fields.put("genre", this.genre);
+		fields.put("releaseYear", this.releaseYear);
+		fields.put("rating", this.rating);
+		fields.put("castList", getCastList());
+		out.writeFields();
+	}
+
+	/**
+	 * Reads a movie written by {@link #writeObject(ObjectOutputStream)} or
+	 * before names were kept in a dictionary
+	 * 
+	 * @param in the stream to read from
+	 * @throws IOException            if the movie could not be read
+	 * @throws ClassNotFoundException if a class of the movie's fields is missing
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		ObjectInputStream.GetField fields = in.readFields();
+		this.setTitle((String) fields.get("title", null));
+		this.setDirector((String) fields.get("director", null));
+		this.setGenre((Genre) fields.get("genre", null));
+		this.setReleaseYear(fields.get("releaseYear", 0));
+		this.setRating((Rating) fields.get("rating", null));
+		this.setCastList((String[]) fields.get("castList", null));
 	}
 
 	/**
@@ -1,6 +1,10 @@
 package moviecollection;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Information about a Movie Collection (Model).
@@ -11,15 +15,23 @@ import java.util.ArrayList;
 public class MovieCollection {
 
 	// Collection Attributes
-	private ArrayList<Movie> movieCollection;
+	private MovieList movieCollection;
 	private SearchEngine searchEngine;
+	private MovieJournal journal;
+	private TokenIndex tokenIndex;
+	private TrigramIndex trigramIndex;
+	private YearIndex yearIndex;
+	private AttributeIndex attributeIndex;
+	private DuplicateIndex duplicateIndex;
+	private final ArrayList<MovieIndex> indexes = new ArrayList<MovieIndex>();
+	private long version;
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
 
 	/**
 	 * Construct a Default Movie Collection
 	 */
 	public MovieCollection() {
-		this(new ArrayList<Movie>());
-		this.movieCollection = new ArrayList<Movie>();
+		this(new MovieList());
 	}
 
 	/**
@@ -27,7 +39,7 @@ public class MovieCollection {
 	 * 
 	 * @param movieCollection the movie collection to construct from
 	 */
-	public MovieCollection(ArrayList<Movie> movieCollection) {
+	public MovieCollection(List<Movie> movieCollection) {
 		this.setMovieCollection(movieCollection);
 		this.searchEngine = new SearchEngine(this);
 	}
@@ -38,7 +50,72 @@ public class MovieCollection {
 	 * @param movie the movie to add into the collection
 	 */
 	public void addToMovieCollection(Movie movie) {
-		this.movieCollection.add(movie);
+		this.lock.writeLock().lock();
+		try {
+			this.movieCollection.add(movie);
+			this.version++;
+			if (this.journal != null) {
+				this.journal.logAdd(movie);
+				this.journal.compactIfNeeded(this.movieCollection);
+			}
+		} finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Adds a batch of new movies to the collection
+	 * 
+	 * @param movies the movies to add into the collection
+	 */
+	public void addAllToMovieCollection(Collection<Movie> movies) {
+		this.addAll(movies, false);
+	}
+
+	/**
+	 * Adds a batch of new movies to the collection, counting the movies that
+	 * share their title, release year and director with a movie added before
+	 * them, be it in the collection or earlier in the batch
+	 * 
+	 * @param movies the movies to add into the collection
+	 * @return the number of added movies duplicating an earlier movie
+	 */
+	public int addAllCountingDuplicates(Collection<Movie> movies) {
+		return this.addAll(movies, true);
+	}
+
+	/**
+	 * Adds a batch of new movies to the collection
+	 * 
+	 * @param movies          the movies to add into the collection
+	 * @param countDuplicates true to count the movies duplicating an earlier
+	 *                        movie, else false
+	 * @return the number of added movies duplicating an earlier movie, or 0 if
+	 *         they are not counted
+	 */
+	private int addAll(Collection<Movie> movies, boolean countDuplicates) {
+		int duplicates = 0;
+		this.lock.writeLock().lock();
+		try {
+			this.version++;
+			for (Movie movie : movies) {
+				// The index catches up with the movies added before this one
+				if (countDuplicates && getDuplicateIndex().countRelease(movie.getTitle(), movie.getReleaseYear(),
+						movie.getDirector()) > 0) {
+					duplicates++;
+				}
+				this.movieCollection.add(movie);
+				if (this.journal != null) {
+					this.journal.logAdd(movie);
+				}
+			}
+			if (this.journal != null) {
+				this.journal.compactIfNeeded(this.movieCollection);
+			}
+		} finally {
+			this.lock.writeLock().unlock();
+		}
+		return duplicates;
 	}
 
 	/**
@@ -47,7 +124,54 @@ public class MovieCollection {
 	 * @param index the index of the movie to be removed
 	 */
 	public void removeFromMovieCollection(int index) {
-		this.movieCollection.remove(index);
+		this.removeById(this.movieCollection.getRowAt(index));
+	}
+
+	/**
+	 * Removes the movie with the specified id. Its id is not reused.
+	 * 
+	 * @param id the id of the movie to be removed
+	 */
+	public void removeById(int id) {
+		this.lock.writeLock().lock();
+		try {
+			int index = this.movieCollection.positionOfRow(id);
+			if (index == -1) {
+				throw new IllegalArgumentException("No movie has the id " + id);
+			}
+			Movie movie = this.movieCollection.removeRow(id);
+			this.version++;
+			synchronized (this) {
+				for (MovieIndex movieIndex : this.indexes) {
+					movieIndex.remove(id, movie);
+				}
+			}
+			if (this.journal != null) {
+				this.journal.logRemove(index);
+				this.journal.compactIfNeeded(this.movieCollection);
+			}
+		} finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the id of a movie. Ids stay the same while the collection is
+	 * open, however the movies are ordered, filtered or removed.
+	 * 
+	 * @param index the index of a movie in the collection
+	 * @return the id of the movie
+	 */
+	public int getIdAt(int index) {
+		return this.movieCollection.getRowAt(index);
+	}
+
+	/**
+	 * @param id the id of a movie
+	 * @return the movie with the id, or null if it was removed
+	 */
+	public Movie getMovieById(int id) {
+		return this.movieCollection.getMovieAtRow(id);
 	}
 
 	/**
@@ -64,12 +188,90 @@ public class MovieCollection {
 	}
 
 	/**
-	 * @return the array list of all movies in the collection
+	 * @return the number of changes made to the collection, which search
+	 *         results are cached against
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * @return the list of all movies in the collection
 	 */
-	public ArrayList<Movie> getMovieCollection() {
+	public List<Movie> getMovieCollection() {
 		return movieCollection;
 	}
 
+	/**
+	 * Returns the index of the words in the collection, building it on first use.
+	 * Added movies are indexed by the index itself when it is next searched.
+	 * 
+	 * @return the token index of the collection
+	 */
+	public synchronized TokenIndex getTokenIndex() {
+		if (this.tokenIndex == null) {
+			this.tokenIndex = new TokenIndex(this.movieCollection);
+			this.indexes.add(this.tokenIndex);
+		}
+		return tokenIndex;
+	}
+
+	/**
+	 * Returns the trigram index of the collection, building it on first use.
+	 * Added movies are indexed by the index itself when it is next searched.
+	 * 
+	 * @return the trigram index of the collection
+	 */
+	public synchronized TrigramIndex getTrigramIndex() {
+		if (this.trigramIndex == null) {
+			this.trigramIndex = new TrigramIndex(this.movieCollection);
+			this.indexes.add(this.trigramIndex);
+		}
+		return trigramIndex;
+	}
+
+	/**
+	 * Returns the release year index of the collection, building it on first
+	 * use. Added movies are indexed by the index itself when it is next searched.
+	 * 
+	 * @return the release year index of the collection
+	 */
+	public synchronized YearIndex getYearIndex() {
+		if (this.yearIndex == null) {
+			this.yearIndex = new YearIndex(this.movieCollection);
+			this.indexes.add(this.yearIndex);
+		}
+		return yearIndex;
+	}
+
+	/**
+	 * Returns the genre and rating index of the collection, building it on first
+	 * use. Added movies are indexed by the index itself when it is next searched.
+	 * 
+	 * @return the genre and rating index of the collection
+	 */
+	public synchronized AttributeIndex getAttributeIndex() {
+		if (this.attributeIndex == null) {
+			this.attributeIndex = new AttributeIndex(this.movieCollection);
+			this.indexes.add(this.attributeIndex);
+		}
+		return attributeIndex;
+	}
+
+	/**
+	 * Returns the duplicate index of the collection, building it on first use.
+	 * Added movies are indexed by the index itself when it is next used.
+	 * 
+	 * @return the duplicate index of the collection
+	 */
+	public synchronized DuplicateIndex getDuplicateIndex() {
+		if (this.duplicateIndex == null) {
+			this.duplicateIndex = new DuplicateIndex(this.movieCollection);
+			this.indexes.add(this.duplicateIndex);
+		}
+		return duplicateIndex;
+	}
+
 	/**
 	 * @return the search engine object
 	 */
@@ -78,21 +280,99 @@ public class MovieCollection {
 	}
 
 	/**
-	 * Sets the movie collection to the input collection
+	 * Sets the movie collection to the input collection. A movie list is used
+	 * as it is, any other list is copied.
 	 * 
 	 * @param movieCollection a movie collection
 	 */
-	public void setMovieCollection(ArrayList<Movie> movieCollection) {
-		this.movieCollection = movieCollection;
-		this.searchEngine = new SearchEngine(this);
+	public void setMovieCollection(List<Movie> movieCollection) {
+		this.lock.writeLock().lock();
+		try {
+			if (movieCollection instanceof MovieList) {
+				this.movieCollection = (MovieList) movieCollection;
+			} else {
+				this.movieCollection = new MovieList(movieCollection);
+			}
+			synchronized (this) {
+				this.tokenIndex = null;
+				this.trigramIndex = null;
+				this.yearIndex = null;
+				this.attributeIndex = null;
+				this.duplicateIndex = null;
+				this.indexes.clear();
+			}
+			this.searchEngine = new SearchEngine(this);
+		} finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the lock guarding the collection. Changes to the collection hold
+	 * its write lock, so searches on other threads must hold its read lock.
+	 * 
+	 * @return the read-write lock of the collection
+	 */
+	public ReadWriteLock getLock() {
+		return lock;
+	}
+
+	/**
+	 * @return the journal recording changes to the collection, or null
+	 */
+	public MovieJournal getJournal() {
+		return journal;
+	}
+
+	/**
+	 * Sets the journal that records all further changes to the collection
+	 * 
+	 * @param journal the journal to record changes in, or null
+	 */
+	public void setJournal(MovieJournal journal) {
+		this.journal = journal;
 	}
 
 	/**
-	 * Checks if the movie already exists in the collection
+	 * Checks if a movie with the same title already exists in the collection
 	 * 
+	 * @param movie the movie to check
 	 * @return true if movie already exists in the collection, else false
 	 */
-	public boolean hasMovieAlready() {
-		return this.movieCollection.size() > 0;
+	public boolean hasMovieAlready(Movie movie) {
+		return countDuplicates(movie, false) > 0;
+	}
+
+	/**
+	 * Builds the duplicate index ahead of the first duplicate check, so that
+	 * the check does not have to index the whole collection itself
+	 */
+	public void prepareDuplicateIndex() {
+		this.lock.readLock().lock();
+		try {
+			getDuplicateIndex().countTitle(null);
+		} finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Counts the movies in the collection that a movie would duplicate
+	 * 
+	 * @param movie       the movie to check
+	 * @param sameRelease true to only count movies that also share the release
+	 *                    year and director, else false to count all movies with
+	 *                    the same title
+	 * @return the number of movies in the collection duplicating the movie
+	 */
+	public int countDuplicates(Movie movie, boolean sameRelease) {
+		this.lock.readLock().lock();
+		try {
+			return sameRelease
+					? getDuplicateIndex().countRelease(movie.getTitle(), movie.getReleaseYear(), movie.getDirector())
+					: getDuplicateIndex().countTitle(movie.getTitle());
+		} finally {
+			this.lock.readLock().unlock();
+		}
 	}
 }
@@ -6,20 +6,26 @@ import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
-import java.io.EOFException;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
+import java.io.File;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import javax.swing.*;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
-import javax.swing.table.DefaultTableModel;
-import javax.swing.table.TableRowSorter;
+import javax.swing.event.PopupMenuEvent;
+import javax.swing.event.PopupMenuListener;
+import javax.swing.filechooser.FileNameExtensionFilter;
 
 /**
  * Movie Collection Controller.
@@ -30,36 +36,34 @@ import javax.swing.table.TableRowSorter;
 public class MovieCollectionApp extends JFrame {
 
 	// Controller Attributes
+	private static final File DATA_FILE = new File("moviecollection.bin");
+	private static final int QUICK_FILTER_YEARS = 4096; // Years matched up front
+	private final boolean offHeap;
 	private MovieCollection model;
 	private MovieCollectionView view;
+	private MovieCollectionLoader loader;
+	private boolean importing;
+	private int importedDuplicates;
+
+	private QueryExecutor queryExecutor;
+	private QueryExecutor facetExecutor;
+	private String facetQuery;
+	private long facetVersion = -1;
+	private QuickFilterResults quickFilter;
+	private SearchResult advancedResults;
+	private long advancedVersion;
 
 	/**
 	 * Handle actions when window opens (application starts)
 	 */
 	private void eventHandleWindowOpened() {
 		System.out.println("The Movie Collection Application has launched.");
-		// Read the contents of the database file into the collection
-		try {
-			ObjectInputStream out = new ObjectInputStream(new FileInputStream("moviecollection.bin"));
-			boolean EOF = false;
-			while (!EOF) {
-				try {
-					Movie movie = (Movie) out.readObject();
-					System.out.println("IMPORTED: " + movie.toString());
-					this.model.addToMovieCollection(movie);
-				} catch (EOFException eof) {
-					out.close();
-					EOF = true;
-				}
-			}
-		} catch (IOException | ClassNotFoundException e) {
-			JOptionPane.showMessageDialog(this,
-					"Your collection data file could not be loaded, due to the following error:\n" + e.getMessage(),
-					"Error Loading Data", JOptionPane.ERROR_MESSAGE);
-			e.printStackTrace();
-		} finally {
-			this.view.update(this.model.getMovieCollectionArray());
-		}
+		// Load the contents of the database file into the collection in the background
+		this.view.getAddBtn().setEnabled(false);
+		this.view.getRemoveBtn().setEnabled(false);
+		this.view.getImportMenuItem().setEnabled(false);
+		this.loader = new MovieCollectionLoader(DATA_FILE, this.model, this.view, this.offHeap);
+		this.loader.execute();
 	}
 
 	/**
@@ -67,14 +71,28 @@ public class MovieCollectionApp extends JFrame {
 	 */
 	private void eventHandleWindowClosing() {
 		System.out.println("The Movie Collection Application is terminating.");
-		// Save the contents of the movie collection to a data file
+		this.queryExecutor.shutdown();
+		this.facetExecutor.shutdown();
+		// Nothing can have changed while the collection was still loading
+		if (!this.loader.isLoaded()) {
+			this.loader.cancel(true);
+			return;
+		}
+		// Never write the empty collection over a data file that failed to load
+		if (this.loader.hasFailed()) {
+			System.out.println("NOT SAVED: The data file could not be loaded, so it was left untouched.");
+			return;
+		}
+		// Save the outstanding changes to the journal, or the whole collection if
+		// the journal could not be opened
 		try {
-			ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream("moviecollection.bin", false));
-			for (int i = 0; i < this.model.getMovieCollection().size(); i++) {
-				out.writeObject(this.model.getMovieCollection().get(i));
+			if (this.model.getJournal() != null) {
+				this.model.getJournal().close();
+				System.out.println("EXPORTED: All changes to the collection were successfully saved to the journal...");
+			} else {
+				MovieJournal.writeSnapshot(this.model.getMovieCollection(), DATA_FILE);
+				System.out.println("EXPORTED: All movies in the collection were successfully saved to the data file...");
 			}
-			out.close();
-			System.out.println("EXPORTED: All movies in the collection were successfully saved to the data file...");
 		} catch (IOException e) {
 			JOptionPane.showMessageDialog(this,
 					"Your collection could not be saved, due to the following error:\n" + e.getMessage(),
@@ -87,10 +105,16 @@ public class MovieCollectionApp extends JFrame {
 	 * Handles adding a new movie to the collection
 	 */
 	private void eventHandleAddBtn() {
+		if (!isCollectionLoaded()) {
+			return;
+		}
 		// Check if all fields have data
 		if (isNewMovieMetadataComplete()) {
+			// Stop searching, so that the collection can be changed right away
+			stopSearching();
+
 			// Check if the new movie is already in the collection
-			if (newMovieAlreadyExists(getNewMovieDetails().getTitle())) {
+			if (this.model.hasMovieAlready(getNewMovieDetails())) {
 				int option = JOptionPane.showConfirmDialog(this,
 						"A movie with this title already exists in your collection.\nWould you like to add it anyway?",
 						"Duplicate Movie?", JOptionPane.YES_NO_OPTION);
@@ -115,19 +139,178 @@ public class MovieCollectionApp extends JFrame {
 					"Prior to adding this movie to your collection,\nplease complete the required metadata fields.",
 					"Incomplete Movie Data", JOptionPane.INFORMATION_MESSAGE);
 		}
-		this.view.update(this.model.getMovieCollectionArray());
+		this.view.update(this.model.getMovieCollection());
 	}
 
 	/**
 	 * Handles removing a movie from the collection
 	 */
 	private void eventHandleRemoveBtn() {
+		if (!isCollectionLoaded()) {
+			return;
+		}
 		int index = this.view.getMovieCollectionTable().getSelectedRow();
 		if (index != -1) {
-			System.out.println("DELETED: " + this.model.getMovieCollection().get(index).toString());
-			this.model.removeFromMovieCollection(index);
+			// Stop searching, so that the collection can be changed right away
+			stopSearching();
+
+			// Find the selected movie by id, as the table may be sorted or filtered
+			int id = this.view.getTableModel()
+					.getIdAt(this.view.getMovieCollectionTable().convertRowIndexToModel(index));
+			System.out.println("DELETED: " + this.model.getMovieById(id).toString());
+			this.model.removeById(id);
+		}
+		this.view.update(this.model.getMovieCollection());
+	}
+
+	/**
+	 * Handles importing a dataset of movies into the collection
+	 */
+	private void eventHandleImportMenuItem() {
+		if (!isCollectionLoaded()) {
+			return;
+		}
+		JFileChooser chooser = new JFileChooser();
+		chooser.setFileFilter(new FileNameExtensionFilter("Movie Datasets (CSV, TSV)", "csv", "tsv", "txt"));
+		if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+			return;
+		}
+		File file = chooser.getSelectedFile();
+		this.importing = true;
+		this.importedDuplicates = 0;
+		this.view.getAddBtn().setEnabled(false);
+		this.view.getRemoveBtn().setEnabled(false);
+		this.view.getImportMenuItem().setEnabled(false);
+
+		// Parse in the background, committing each batch on the Event Dispatch Thread
+		new SwingWorker<BulkImporter.Report, Void>() {
+			@Override
+			protected BulkImporter.Report doInBackground() throws IOException {
+				return new BulkImporter(file).importMovies(batch -> {
+					try {
+						SwingUtilities.invokeAndWait(() -> importBatch(batch));
+					} catch (InterruptedException | InvocationTargetException e) {
+						throw new IllegalStateException("The import was interrupted", e);
+					}
+				});
+			}
+
+			@Override
+			protected void done() {
+				importing = false;
+				view.getAddBtn().setEnabled(true);
+				view.getImportMenuItem().setEnabled(true);
+				eventHandleTableSelection();
+				try {
+					BulkImporter.Report report = get();
+					System.out.println("IMPORTED: " + report);
+					String message = report.toString() + ".";
+					if (importedDuplicates > 0) {
+						message += "\n" + importedDuplicates
+								+ " of them were already in your collection with the same year and director.";
+					}
+					if (report.getRejectFile() != null) {
+						message += "\nThe rejected rows are listed in " + report.getRejectFile().getName() + ".";
+					}
+					JOptionPane.showMessageDialog(MovieCollectionApp.this, message, "Import Complete",
+							report.getRejectedRows() == 0 ? JOptionPane.INFORMATION_MESSAGE
+									: JOptionPane.WARNING_MESSAGE);
+				} catch (InterruptedException | ExecutionException e) {
+					Throwable cause = e.getCause() == null ? e : e.getCause();
+					JOptionPane.showMessageDialog(MovieCollectionApp.this,
+							"The movies could not be imported, due to the following error:\n" + cause.getMessage(),
+							"Error Importing Data", JOptionPane.ERROR_MESSAGE);
+					cause.printStackTrace();
+				}
+			}
+		}.execute();
+	}
+
+	/**
+	 * Handles exporting the movies shown in the collection table
+	 */
+	private void eventHandleExportMenuItem() {
+		JFileChooser chooser = new JFileChooser();
+		chooser.setFileFilter(new FileNameExtensionFilter("CSV, JSON Lines or Data File", "csv", "jsonl", "bin"));
+		if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+			return;
+		}
+		File file = chooser.getSelectedFile();
+		if (MovieJournal.belongsTo(DATA_FILE, file)) {
+			JOptionPane.showMessageDialog(this,
+					"The movies cannot be exported to " + file.getName()
+							+ ", as it holds the collection.\nPlease choose another file.",
+					"Error Exporting Data", JOptionPane.ERROR_MESSAGE);
+			return;
+		}
+
+		// Export a copy of the shown movies in their shown order, so the
+		// collection may change meanwhile. Only rows are captured here; the
+		// movies are read in the background.
+		List<Movie> shownMovies = this.view.getTableModel().getMovies();
+		MovieList movies;
+		int[] resultRows = null;
+		if (shownMovies instanceof SearchResult) {
+			movies = ((SearchResult) shownMovies).getMovies().copy();
+			resultRows = ((SearchResult) shownMovies).getRows();
+		} else {
+			movies = ((MovieList) shownMovies).copy();
+		}
+		RowSorter<?> sorter = this.view.getMovieCollectionTable().getRowSorter();
+		int[] shownRows = new int[sorter == null ? shownMovies.size() : sorter.getViewRowCount()];
+		for (int i = 0; i < shownRows.length; i++) {
+			int index = sorter == null ? i : sorter.convertRowIndexToModel(i);
+			shownRows[i] = resultRows != null ? resultRows[index] : movies.getRowAt(index);
+		}
+		new SwingWorker<Long, Void>() {
+			@Override
+			protected Long doInBackground() throws IOException {
+				Iterable<Movie> shown = () -> new Iterator<Movie>() {
+					private int next;
+
+					@Override
+					public boolean hasNext() {
+						return this.next < shownRows.length;
+					}
+
+					@Override
+					public Movie next() {
+						return movies.readMovieAtRow(shownRows[this.next++]);
+					}
+				};
+				// Movies removed since a search are no longer in the copy
+				return new MovieExporter(MovieExporter.formatOf(file)).export(shown, Objects::nonNull, file);
+			}
+
+			@Override
+			protected void done() {
+				try {
+					System.out.println("EXPORTED: " + get() + " movies to " + file.getName());
+				} catch (InterruptedException | ExecutionException e) {
+					Throwable cause = e.getCause() == null ? e : e.getCause();
+					JOptionPane.showMessageDialog(MovieCollectionApp.this,
+							"The movies could not be exported, due to the following error:\n" + cause.getMessage(),
+							"Error Exporting Data", JOptionPane.ERROR_MESSAGE);
+					cause.printStackTrace();
+				}
+			}
+		}.execute();
+	}
+
+	/**
+	 * Adds a batch of imported movies to the collection and shows them
+	 * 
+	 * @param batch the imported movies
+	 */
+	private void importBatch(List<Movie> batch) {
+		// Stop searching, so that the collection can be changed right away
+		stopSearching();
+		List<Movie> movies = this.model.getMovieCollection();
+		int oldSize = movies.size();
+		this.importedDuplicates += this.model.addAllCountingDuplicates(batch);
+		if (this.view.getTableModel().getMovies() == movies && movies.size() > oldSize) {
+			this.view.getTableModel().fireTableRowsInserted(oldSize, movies.size() - 1);
 		}
-		this.view.update(this.model.getMovieCollectionArray());
 	}
 
 	/**
@@ -135,7 +318,8 @@ public class MovieCollectionApp extends JFrame {
 	 */
 	private void eventHandleTableSelection() {
 		// Enable/Disable remove button depending on active selection
-		this.view.getRemoveBtn().setEnabled(this.view.getMovieCollectionTable().getSelectedRow() != -1);
+		this.view.getRemoveBtn()
+				.setEnabled(isCollectionLoaded() && this.view.getMovieCollectionTable().getSelectedRow() != -1);
 	}
 
 	/**
@@ -149,9 +333,13 @@ public class MovieCollectionApp extends JFrame {
 	 * Handles advanced search clear button
 	 */
 	private void eventHandleAdvancedSearchClearBtn() {
-		this.view.update(this.model.getMovieCollectionArray());
+		this.queryExecutor.cancel();
+		this.advancedResults = null;
+		this.quickFilter = null;
+		this.view.update(this.model.getMovieCollection());
 		this.view.getAdvancedSearchBtn().setEnabled(true);
 		this.view.getAdvancedSearchClearBtn().setEnabled(false);
+		applyQuickFilter();
 	}
 
 	/**
@@ -170,6 +358,17 @@ public class MovieCollectionApp extends JFrame {
 		}
 	}
 
+	/**
+	 * Checks if the collection has finished loading, is not being imported into
+	 * and may be changed. A collection whose data file failed to load may never
+	 * be changed.
+	 * 
+	 * @return true if the collection is loaded, else false
+	 */
+	private boolean isCollectionLoaded() {
+		return (this.loader == null || (this.loader.isLoaded() && !this.loader.hasFailed())) && !this.importing;
+	}
+
 	/**
 	 * Checks if the new movie metadata is complete
 	 * 
@@ -203,7 +402,7 @@ public class MovieCollectionApp extends JFrame {
 				Genre.valueOf(this.view.getNewMovieGenre().getSelectedItem().toString()),
 				(Integer) this.view.getNewMovieReleaseYear().getValue(),
 				Rating.valueOf(this.view.getNewMovieRating().getSelectedItem().toString()),
-				new String[] { this.view.getNewMovieCastList().getText().trim() });
+				Movie.parseCastList(this.view.getNewMovieCastList().getText()));
 	}
 
 	/**
@@ -219,31 +418,32 @@ public class MovieCollectionApp extends JFrame {
 	}
 
 	/**
-	 * Checks if a movie with this title already exists in the collection
+	 * Constructs the Movie Collection Application.
 	 * 
-	 * @param title the title of the movie to be added
-	 * @return true if movie with this title already exists, else false
+	 * @param name the title of the application
 	 */
-	private boolean newMovieAlreadyExists(String title) {
-		// Search collection to find potential duplicate
-		for (Movie movie : this.model.getMovieCollection()) {
-			if (movie.getTitle().toLowerCase().equals(title.toLowerCase())) {
-				return true;
-			}
-		}
-		return false;
+	public MovieCollectionApp(String name) {
+		this(name, false);
 	}
 
 	/**
 	 * Constructs the Movie Collection Application.
 	 * 
-	 * @param name the title of the application
+	 * @param name    the title of the application
+	 * @param offHeap true to keep the movies added to the collection outside of
+	 *                the Java heap, else false
 	 */
-	public MovieCollectionApp(String name) {
+	public MovieCollectionApp(String name, boolean offHeap) {
 		super(name);
+		this.offHeap = offHeap;
 		this.model = new MovieCollection();
 		this.view = new MovieCollectionView();
+		this.queryExecutor = new QueryExecutor(this.model.getLock().readLock(), nanos -> this.view
+				.getSearchLatencyLabel().setText(String.format("Searched in %.1f ms", nanos / 1e6)));
+		this.facetExecutor = new QueryExecutor(this.model.getLock().readLock(), nanos -> {
+		});
 		this.getContentPane().add(this.view);
+		setJMenuBar(this.view.getMenuBar());
 		setDefaultCloseOperation(EXIT_ON_CLOSE);
 		setSize(800, 500);
 		setResizable(false);
@@ -287,6 +487,20 @@ public class MovieCollectionApp extends JFrame {
 			}
 		});
 
+		this.view.getImportMenuItem().addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				eventHandleImportMenuItem();
+			}
+		});
+
+		this.view.getExportMenuItem().addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				eventHandleExportMenuItem();
+			}
+		});
+
 		this.view.getMovieCollectionTable().getSelectionModel().addListSelectionListener(new ListSelectionListener() {
 			@Override
 			public void valueChanged(ListSelectionEvent e) {
@@ -297,9 +511,7 @@ public class MovieCollectionApp extends JFrame {
 		this.view.getQuickFilterTerm().addKeyListener(new KeyAdapter() {
 			@Override
 			public void keyReleased(KeyEvent e) {
-				String query = view.getQuickFilterTerm().getText().toLowerCase();
-				String type = view.getQuickFilterComboBox().getSelectedItem().toString();
-				filter(type, query);
+				applyQuickFilter();
 			}
 		});
 
@@ -323,6 +535,39 @@ public class MovieCollectionApp extends JFrame {
 				eventHandleSearchRatingSelection();
 			}
 		});
+
+		// Count the movies of each genre and rating for the director or cast term
+		ActionListener nameListener = new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				refreshFacetCounts(false);
+			}
+		};
+		this.view.getSearchDirCastChBx().addActionListener(nameListener);
+		this.view.getSearchDirCastComBx().addActionListener(nameListener);
+		this.view.getSearchDirCastTerm().addKeyListener(new KeyAdapter() {
+			@Override
+			public void keyReleased(KeyEvent e) {
+				refreshFacetCounts(false);
+			}
+		});
+		PopupMenuListener optionsListener = new PopupMenuListener() {
+			@Override
+			public void popupMenuWillBecomeVisible(PopupMenuEvent e) {
+				refreshFacetCounts(true);
+			}
+
+			@Override
+			public void popupMenuWillBecomeInvisible(PopupMenuEvent e) {
+			}
+
+			@Override
+			public void popupMenuCanceled(PopupMenuEvent e) {
+			}
+		};
+		this.view.getSearchGenreItem().addPopupMenuListener(optionsListener);
+		this.view.getSearchRatingMinComBx().addPopupMenuListener(optionsListener);
+		this.view.getSearchRatingMaxComBx().addPopupMenuListener(optionsListener);
 	}
 
 	/**
@@ -330,128 +575,306 @@ public class MovieCollectionApp extends JFrame {
 	 */
 	private void advancedSearch() {
 
-		MovieCollection results = null;
+		ArrayList<Query> criteria = new ArrayList<Query>();
+		Query name = null;
+		SearchField nameField = null;
+		String nameTerm = null;
 
-		// Cast or Director
+		// Cast or Director, retried with misspelt words when nothing matches
 		if (this.view.getSearchDirCastChBx().isSelected()) {
+			String term = this.view.getSearchDirCastTerm().getText().trim();
 			switch (this.view.getSearchDirCastComBx().getSelectedItem().toString().toLowerCase()) {
 			case ("directed by"):
-				results = this.model.getSearchEngine()
-						.byDirector(this.view.getSearchDirCastTerm().getText().trim().toLowerCase());
+				name = Query.director(term);
+				nameField = SearchField.DIRECTOR;
 				break;
 			case ("casting"):
-				results = this.model.getSearchEngine()
-						.byCast(this.view.getSearchDirCastTerm().getText().trim().toLowerCase());
+				name = Query.cast(term);
+				nameField = SearchField.CAST;
 				break;
 			}
+			nameTerm = term;
 		}
 
 		// Genre
 		if (this.view.getSearchGenreChBx().isSelected()) {
-			if (this.view.getSearchDirCastChBx().isSelected()) {
-				results = results.getSearchEngine()
-						.byGenre(Genre.valueOf(this.view.getSearchGenreItem().getSelectedItem().toString()));
-			} else {
-				results = this.model.getSearchEngine()
-						.byGenre(Genre.valueOf(this.view.getSearchGenreItem().getSelectedItem().toString()));
-			}
+			criteria.add(Query.genre(Genre.valueOf(this.view.getSearchGenreItem().getSelectedItem().toString())));
 		}
 
 		// Rating
 		if (this.view.getSearchRatingChBx().isSelected()) {
-			if (this.view.getSearchDirCastChBx().isSelected() || this.view.getSearchDirCastChBx().isSelected()) {
-				switch (this.view.getSearchRatingComBx().getSelectedItem().toString().toLowerCase()) {
-				case ("of"):
-					results = results.getSearchEngine()
-							.byRating(Rating.valueOf(this.view.getSearchRatingMinComBx().getSelectedItem().toString()));
-					break;
-				case ("above"):
-					results = results.getSearchEngine().ratingAbove(
-							Rating.valueOf(this.view.getSearchRatingMinComBx().getSelectedItem().toString()));
-					break;
-				case ("below"):
-					results = results.getSearchEngine().ratingBelow(
-							Rating.valueOf(this.view.getSearchRatingMinComBx().getSelectedItem().toString()));
-					break;
-				case ("between"):
-					results = results.getSearchEngine().ratingBetween(
-							Rating.valueOf(this.view.getSearchRatingMinComBx().getSelectedItem().toString()),
-							Rating.valueOf(this.view.getSearchRatingMaxComBx().getSelectedItem().toString()));
-					break;
-				}
-			} else {
-				switch (this.view.getSearchRatingComBx().getSelectedItem().toString().toLowerCase()) {
-				case ("of"):
-					results = this.model.getSearchEngine()
-							.byRating(Rating.valueOf(this.view.getSearchRatingMinComBx().getSelectedItem().toString()));
-					break;
-				case ("above"):
-					results = this.model.getSearchEngine().ratingAbove(
-							Rating.valueOf(this.view.getSearchRatingMinComBx().getSelectedItem().toString()));
-					break;
-				case ("below"):
-					results = this.model.getSearchEngine().ratingBelow(
-							Rating.valueOf(this.view.getSearchRatingMinComBx().getSelectedItem().toString()));
-					break;
-				case ("between"):
-					results = this.model.getSearchEngine().ratingBetween(
-							Rating.valueOf(this.view.getSearchRatingMinComBx().getSelectedItem().toString()),
-							Rating.valueOf(this.view.getSearchRatingMaxComBx().getSelectedItem().toString()));
-					break;
-				}
+			Rating min = Rating.valueOf(this.view.getSearchRatingMinComBx().getSelectedItem().toString());
+			switch (this.view.getSearchRatingComBx().getSelectedItem().toString().toLowerCase()) {
+			case ("of"):
+				criteria.add(Query.rating(min, min));
+				break;
+			case ("above"):
+				// A reversed range matches nothing
+				criteria.add(min == Rating.FIVE ? Query.rating(Rating.FIVE, Rating.ONE)
+						: Query.rating(Rating.values()[min.ordinal() + 1], Rating.FIVE));
+				break;
+			case ("below"):
+				criteria.add(min == Rating.ONE ? Query.rating(Rating.FIVE, Rating.ONE)
+						: Query.rating(Rating.ONE, Rating.values()[min.ordinal() - 1]));
+				break;
+			case ("between"):
+				criteria.add(Query.rating(min,
+						Rating.valueOf(this.view.getSearchRatingMaxComBx().getSelectedItem().toString())));
+				break;
 			}
 		}
 
-		// If parameters matched, show movies
-		if (results != null && results.hasMovieAlready()) {
-			this.view.update(results.getMovieCollectionArray());
-			this.view.getAdvancedSearchBtn().setEnabled(false);
-			this.view.getAdvancedSearchClearBtn().setEnabled(true);
+		// Run all criteria as a single query in the background
+		if (criteria.isEmpty() && name == null) {
+			showNoMatchFound();
+			return;
+		}
+		Query others = criteria.isEmpty() ? null : Query.and(criteria.toArray(new Query[criteria.size()]));
+		Query query = name == null ? others : others == null ? name : Query.and(name, others);
+		SearchField fuzzyField = nameField;
+		String fuzzyTerm = nameTerm;
+		this.queryExecutor.submit(() -> {
+			SearchResult results = this.model.getSearchEngine().search(query);
+			if (!results.isEmpty() || fuzzyField == null) {
+				return results;
+			}
+			// Retry the name with misspelt words, keeping the closest matches first
+			SearchResult misspelt = this.model.getSearchEngine().fuzzy(fuzzyField, fuzzyTerm);
+			return others == null ? misspelt : misspelt.filter(others::matches);
+		}, results -> {
+			// If parameters matched, show movies
+			if (!results.isEmpty()) {
+				this.advancedResults = results;
+				this.advancedVersion = this.model.getVersion();
+				this.quickFilter = null;
+				this.view.update(results);
+				this.view.getAdvancedSearchBtn().setEnabled(false);
+				this.view.getAdvancedSearchClearBtn().setEnabled(true);
+				applyQuickFilter();
+			} else {
+				showNoMatchFound();
+			}
+		});
+	}
+
+	/**
+	 * Counts the movies matching the director or cast term of the advanced
+	 * search per genre and rating, unless they are counted already for the
+	 * current collection and term
+	 * 
+	 * @param now true to count right away, as the options are being shown, or
+	 *            false to count once the user pauses typing
+	 */
+	private void refreshFacetCounts(boolean now) {
+		if (!isCollectionLoaded()) {
+			return;
+		}
+		Query query = Query.and();
+		if (this.view.getSearchDirCastChBx().isSelected()) {
+			String term = this.view.getSearchDirCastTerm().getText().trim();
+			query = this.view.getSearchDirCastComBx().getSelectedItem().toString().equalsIgnoreCase("directed by")
+					? Query.director(term)
+					: Query.cast(term);
+		}
+		long version = this.model.getVersion();
+		if (query.key().equals(this.facetQuery) && version == this.facetVersion) {
+			return;
+		}
+		this.facetQuery = query.key();
+		this.facetVersion = version;
+		Query counted = query;
+		if (now) {
+			this.facetExecutor.submit(() -> this.model.getSearchEngine().facets(counted), this.view::setFacetCounts);
 		} else {
-			JOptionPane.showMessageDialog(this,
-					"There are no movies matching these criteria.\nTry adjusting your search parameters.",
-					"No Match Found", JOptionPane.INFORMATION_MESSAGE);
+			this.facetExecutor.submitLater(() -> this.model.getSearchEngine().facets(counted),
+					this.view::setFacetCounts);
 		}
 	}
 
 	/**
-	 * Acts on the quick search parameters entered by the user
+	 * Cancels all searches, including the counting of movies per option, which
+	 * is counted again when the options are next shown
+	 */
+	private void stopSearching() {
+		this.queryExecutor.cancel();
+		this.facetExecutor.cancel();
+		this.facetVersion = -1;
+	}
+
+	/**
+	 * Tells the user that the advanced search matched no movies
+	 */
+	private void showNoMatchFound() {
+		JOptionPane.showMessageDialog(this,
+				"There are no movies matching these criteria.\nTry adjusting your search parameters.",
+				"No Match Found", JOptionPane.INFORMATION_MESSAGE);
+	}
+
+	/**
+	 * Filters the shown movies by the quick search parameters entered by the
+	 * user
+	 */
+	private void applyQuickFilter() {
+		String query = this.view.getQuickFilterTerm().getText().toLowerCase();
+		String type = this.view.getQuickFilterComboBox().getSelectedItem().toString();
+		filter(type, query);
+	}
+
+	/**
+	 * Acts on the quick search parameters entered by the user, searching in the
+	 * background once the user pauses typing. While an advanced search is
+	 * shown, only its results are filtered. A query that contains the previous
+	 * query for the same column can only match movies the previous query
+	 * matched, so only those are checked again.
 	 * 
 	 * @param type  the selected combo box item
 	 * @param query the text field's content
 	 */
 	private void filter(String type, String query) {
-		TableRowSorter<DefaultTableModel> sorter = new TableRowSorter<DefaultTableModel>(this.view.getTableModel());
-		this.view.getMovieCollectionTable().setRowSorter(sorter);
+		String column = type.toLowerCase();
+
+		// The advanced search results, unless the collection changed since
+		SearchResult shown = this.advancedResults != null && this.advancedVersion == this.model.getVersion()
+				? this.advancedResults
+				: null;
+
+		// Show all movies for an empty query
+		if (query.isEmpty()) {
+			this.queryExecutor.cancel();
+			this.quickFilter = null;
+			this.view.update(shown != null ? shown : this.model.getMovieCollection());
+			return;
+		}
+
+		// Year ranges are found through the year index
+		if (column.equals("year") && query.contains("-")) {
+			int[] dateRange = dateRange(query);
+			if ((dateRange != null)) {
+				this.queryExecutor.submitLater(() -> {
+					if (shown == null) {
+						return this.model.getSearchEngine().releasedBetween(dateRange[0], dateRange[1]);
+					}
+					MovieList movies = shown.getMovies();
+					return shown.filterRows(row -> {
+						int year = movies.getReleaseYearAt(row);
+						return year >= dateRange[0] && year <= dateRange[1];
+					});
+				}, results -> {
+					this.quickFilter = null;
+					this.view.update(results);
+				});
+			}
+			return;
+		}
+
+		QuickFilterResults previous = this.quickFilter != null && this.quickFilter.column.equals(column)
+				&& query.contains(this.quickFilter.query) ? this.quickFilter : null;
+		boolean loaded = isCollectionLoaded();
+		this.queryExecutor.submitLater(() -> {
+			Predicate<Movie> matches = movie -> {
+				String text = quickFilterText(column, movie);
+				return text != null && text.toLowerCase().contains(query);
+			};
+			IntPredicate matchingRows = quickFilterRows(column, query,
+					(MovieList) this.model.getMovieCollection());
+			long version = this.model.getVersion();
+			SearchResult results;
+			if (previous != null && previous.version == version) {
+				// Narrow the previous results
+				results = matchingRows != null ? previous.results.filterRows(matchingRows)
+						: previous.results.filter(matches);
+			} else if (shown != null) {
+				// Narrow the advanced search results
+				results = matchingRows != null ? shown.filterRows(matchingRows) : shown.filter(matches);
+			} else {
+				// Evaluate the query against the whole collection
+				SearchEngine engine = this.model.getSearchEngine();
+				switch (column) {
+				case ("title"):
+					results = engine.byTitle(query);
+					break;
+				case ("director"):
+					results = engine.byDirector(query);
+					break;
+				case ("cast"):
+					results = engine.byCast(query);
+					break;
+				default:
+					results = engine.filterRows(matchingRows);
+					break;
+				}
+			}
+			return new QuickFilterResults(column, query, version, results);
+		}, found -> {
+			// Results found while loading miss the movies revealed since
+			this.quickFilter = loaded ? found : null;
+			this.view.update(found.results);
+		});
+	}
+
+	/**
+	 * Matches the rows of the collection by a quick filter column whose text
+	 * follows from a single stored value. The texts of all values are matched
+	 * up front, so filtering reads one column and decodes no movie.
+	 * 
+	 * @param column the quick filter column
+	 * @param query  the text to find in the column
+	 * @param movies the collection the rows belong to
+	 * @return the condition on the rows, or null for the columns holding text
+	 */
+	private static IntPredicate quickFilterRows(String column, String query, MovieList movies) {
+		switch (column) {
+		case ("genre"):
+			boolean[] genres = new boolean[Genre.values().length];
+			for (Genre genre : Genre.values()) {
+				genres[genre.ordinal()] = genre.toString().toLowerCase().contains(query);
+			}
+			return row -> {
+				Genre genre = movies.getGenreAt(row);
+				return genre != null && genres[genre.ordinal()];
+			};
+		case ("year"):
+			boolean[] years = new boolean[QUICK_FILTER_YEARS];
+			for (int year = 0; year < years.length; year++) {
+				years[year] = Integer.toString(year).contains(query);
+			}
+			return row -> {
+				int year = movies.getReleaseYearAt(row);
+				return year >= 0 && year < years.length ? years[year] : Integer.toString(year).contains(query);
+			};
+		case ("rating"):
+			boolean[] ratings = new boolean[Rating.values().length];
+			for (Rating rating : Rating.values()) {
+				ratings[rating.ordinal()] = rating.toString().toLowerCase().contains(query);
+			}
+			return row -> {
+				Rating rating = movies.getRatingAt(row);
+				return rating != null && ratings[rating.ordinal()];
+			};
+		default:
+			return null;
+		}
+	}
 
-		// Evaluates parameters to act on appropriate column
-		switch (type.toLowerCase()) {
+	/**
+	 * @param column the quick filter column
+	 * @param movie  the movie to read
+	 * @return the movie's text in the column, as shown in the collection table
+	 */
+	private static String quickFilterText(String column, Movie movie) {
+		switch (column) {
 		case ("title"):
-			sorter.setRowFilter(RowFilter.regexFilter("(?i)" + query, 0));
-			break;
+			return SearchField.TITLE.getText(movie);
 		case ("director"):
-			sorter.setRowFilter(RowFilter.regexFilter("(?i)" + query, 1));
-			break;
+			return SearchField.DIRECTOR.getText(movie);
 		case ("genre"):
-			sorter.setRowFilter(RowFilter.regexFilter("(?i)" + query, 2));
-			break;
+			return movie.getGenre().toString();
 		case ("year"):
-			if (query.contains("-")) {
-				int[] dateRange = dateRange(query);
-				if ((dateRange != null)) {
-					this.view.update(this.model.getSearchEngine().releasedBetween(dateRange[0], dateRange[1])
-							.getMovieCollectionArray());
-				}
-			} else {
-				sorter.setRowFilter(RowFilter.regexFilter("(?i)" + query, 3));
-			}
-			break;
+			return Integer.toString(movie.getReleaseYear());
 		case ("rating"):
-			sorter.setRowFilter(RowFilter.regexFilter("(?i)" + query, 4));
-			break;
-		case ("cast"):
-			sorter.setRowFilter(RowFilter.regexFilter("(?i)" + query, 5));
-			break;
+			return movie.getRating().toString();
+		default:
+			return SearchField.CAST.getText(movie);
 		}
 	}
 
@@ -482,14 +905,34 @@ public class MovieCollectionApp extends JFrame {
 	/**
 	 * Application entry point.
 	 * 
-	 * @param args Optional startup arguments
+	 * @param args Optional startup arguments: --off-heap keeps the movies added
+	 *             to the collection outside of the Java heap
 	 * @see Icon made by Freepik from www.flaticon.com
 	 */
 	public static void main(String[] args) {
-		JFrame frame = new MovieCollectionApp("My Movie Collection");
+		JFrame frame = new MovieCollectionApp("My Movie Collection", Arrays.asList(args).contains("--off-heap"));
 		ImageIcon img = new ImageIcon("icon.png");
 		frame.setIconImage(img.getImage());
 		frame.setVisible(true);
-		frame.setSize(720, 455);
+		frame.setSize(720, 477);
+	}
+
+	/**
+	 * Results of a Quick Filter, with the Query and Collection Version they
+	 * were Found for.
+	 */
+	private static class QuickFilterResults {
+
+		private final String column;
+		private final String query;
+		private final long version;
+		private final SearchResult results;
+
+		private QuickFilterResults(String column, String query, long version, SearchResult results) {
+			this.column = column;
+			this.query = query;
+			this.version = version;
+			this.results = results;
+		}
 	}
 }
@@ -0,0 +1,197 @@
+package moviecollection;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+
+/**
+ * Loads the Movie Collection in the Background.
+ *
+ * The data file is migrated, mapped and brought up to date with its journal
+ * away from the Event Dispatch Thread. The collection is then handed to the
+ * model and revealed in batches while the pages holding its movies are read
+ * from disk, so the table fills progressively and the loaded movies can be
+ * searched straight away.
+ *
+ * @author Olaf Wrieden
+ * @version 1.0
+ */
+public class MovieCollectionLoader extends SwingWorker<MovieJournal, Integer> {
+
+	// Number of batches the collection is revealed in
+	private static final int BATCHES = 100;
+
+	// Loader Attributes
+	private final File dataFile;
+	private final MovieCollection model;
+	private final MovieCollectionView view;
+	private final boolean offHeap;
+	private MovieList movies;
+	private boolean loaded;
+	private boolean failed;
+
+	/**
+	 * Constructs a Movie Collection Loader
+	 *
+	 * @param dataFile the data file to load the collection from
+	 * @param model    the model to load the collection into
+	 * @param view     the view showing the collection
+	 */
+	public MovieCollectionLoader(File dataFile, MovieCollection model, MovieCollectionView view) {
+		this(dataFile, model, view, false);
+	}
+
+	/**
+	 * Constructs a Movie Collection Loader
+	 *
+	 * @param dataFile the data file to load the collection from
+	 * @param model    the model to load the collection into
+	 * @param view     the view showing the collection
+	 * @param offHeap  true to keep the movies added to the collection outside of
+	 *                 the Java heap, else false
+	 */
+	public MovieCollectionLoader(File dataFile, MovieCollection model, MovieCollectionView view, boolean offHeap) {
+		this.dataFile = dataFile;
+		this.model = model;
+		this.view = view;
+		this.offHeap = offHeap;
+	}
+
+	/**
+	 * Prepares the collection and reads it from disk (Background Thread)
+	 *
+	 * @return the journal recording further changes to the collection
+	 * @throws IOException if the collection could not be loaded
+	 */
+	@Override
+	protected MovieJournal doInBackground() throws IOException {
+		int migrated = LegacyDataMigrator.migrate(this.dataFile);
+		if (migrated != -1) {
+			System.out.println("MIGRATED: " + migrated + " movies were converted to the snapshot format.");
+		}
+
+		// Apply the latest compaction, then the changes made since
+		MovieJournal.installSnapshot(this.dataFile);
+		MappedMovieSnapshot snapshot = this.dataFile.exists() ? MappedMovieSnapshot.open(this.dataFile) : null;
+		MovieCollection collection = new MovieCollection(new MovieList(snapshot, this.offHeap));
+		long generation = snapshot == null ? 0 : snapshot.getGeneration();
+		MovieJournal journal = MovieJournal.open(this.dataFile, generation, collection);
+
+		// Hand the collection over, then reveal it as its pages are read
+		this.movies = (MovieList) collection.getMovieCollection();
+		this.movies.setLoadedSize(0);
+		publish(0);
+		int rows = snapshot == null ? 0 : snapshot.size();
+		for (int batch = 1; batch <= BATCHES && !isCancelled(); batch++) {
+			if (rows > 0) {
+				snapshot.prefetch((int) ((long) rows * (batch - 1) / BATCHES), (int) ((long) rows * batch / BATCHES));
+			}
+			publish(batch);
+		}
+		return journal;
+	}
+
+	/**
+	 * Reveals the movies read so far (Event Dispatch Thread)
+	 *
+	 * @param batches the batches read since the last call
+	 */
+	@Override
+	protected void process(List<Integer> batches) {
+		if (this.loaded) {
+			return;
+		}
+		handOver();
+		int batch = batches.get(batches.size() - 1);
+		reveal((int) ((long) this.movies.getTotalSize() * batch / BATCHES));
+		this.view.getLoadingProgressBar().setValue(batch * 100 / BATCHES);
+		this.view.getLoadingProgressBar().setString("Loading " + this.movies.size() + " movies...");
+	}
+
+	/**
+	 * Finishes loading and starts journaling changes (Event Dispatch Thread)
+	 */
+	@Override
+	protected void done() {
+		this.loaded = true;
+		try {
+			MovieJournal journal = get();
+			handOver();
+			reveal(Integer.MAX_VALUE);
+			this.model.setJournal(journal);
+			System.out.println("IMPORTED: " + this.movies.size() + " movies from the data file.");
+
+			// Index the titles in the background, rather than on the first Add
+			Thread indexer = new Thread(this.model::prepareDuplicateIndex, "Duplicate Indexer");
+			indexer.setDaemon(true);
+			indexer.start();
+		} catch (CancellationException e) {
+			// The application is closing
+		} catch (InterruptedException | ExecutionException e) {
+			// Leave the data file alone, so it can be recovered
+			this.failed = true;
+			Throwable cause = e.getCause() == null ? e : e.getCause();
+			JOptionPane.showMessageDialog(SwingUtilities.getWindowAncestor(this.view),
+					"Your collection data file could not be loaded, due to the following error:\n"
+							+ cause.getMessage()
+							+ "\n\nThe collection cannot be changed until the data file is repaired.",
+					"Error Loading Data", JOptionPane.ERROR_MESSAGE);
+			cause.printStackTrace();
+			this.view.update(this.model.getMovieCollection());
+		}
+		this.view.getLoadingProgressBar().setVisible(false);
+		this.view.getAddBtn().setEnabled(!this.failed);
+		this.view.getImportMenuItem().setEnabled(!this.failed);
+	}
+
+	/**
+	 * Hands the collection over to the model, unless that has happened already
+	 */
+	private void handOver() {
+		if (this.model.getMovieCollection() != this.movies) {
+			this.model.setMovieCollection(this.movies);
+			this.view.update(this.movies);
+			this.view.getLoadingProgressBar().setVisible(true);
+		}
+	}
+
+	/**
+	 * Makes further movies of the collection visible. Searches read the size
+	 * under the collection's read lock, so it is changed under its write lock.
+	 *
+	 * @param loadedSize the number of loaded movies
+	 */
+	private void reveal(int loadedSize) {
+		int oldSize = this.movies.size();
+		this.model.getLock().writeLock().lock();
+		try {
+			this.movies.setLoadedSize(loadedSize);
+		} finally {
+			this.model.getLock().writeLock().unlock();
+		}
+		if (this.view.getTableModel().getMovies() == this.movies && this.movies.size() > oldSize) {
+			this.view.getTableModel().fireTableRowsInserted(oldSize, this.movies.size() - 1);
+		}
+	}
+
+	/**
+	 * @return true once loading has finished and the collection may be changed
+	 */
+	public boolean isLoaded() {
+		return loaded;
+	}
+
+	/**
+	 * @return true if the data file could not be loaded, in which case the
+	 *         collection must neither be changed nor saved over it
+	 */
+	public boolean hasFailed() {
+		return failed;
+	}
+}
@@ -1,21 +1,30 @@
 package moviecollection;
 
+import java.awt.Component;
 import java.awt.Font;
 import java.awt.Image;
 import java.util.Calendar;
+import java.util.List;
+import javax.swing.DefaultListCellRenderer;
 import javax.swing.ImageIcon;
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
 import javax.swing.JLabel;
+import javax.swing.JList;
+import javax.swing.JMenu;
+import javax.swing.JMenuBar;
+import javax.swing.JMenuItem;
 import javax.swing.JPanel;
+import javax.swing.JProgressBar;
 import javax.swing.JScrollPane;
 import javax.swing.JSpinner;
 import javax.swing.JTable;
 import javax.swing.JTextField;
 import javax.swing.ListSelectionModel;
 import javax.swing.SpinnerNumberModel;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.SwingConstants;
+import javax.swing.plaf.basic.ComboPopup;
 
 /**
  * View Controller for the Movie Collection.
@@ -30,7 +39,7 @@ public class MovieCollectionView extends JPanel {
 
 	// Table Components
 	private JTable movieCollectionTable;
-	private DefaultTableModel tableModel;
+	private MovieTableModel tableModel;
 
 	// Buttons
 	private JButton addBtn;
@@ -50,6 +59,17 @@ public class MovieCollectionView extends JPanel {
 	private JComboBox<String> quickFilterComboBox;
 	private JTextField quickFilterTerm;
 
+	// Loading Progress
+	private JProgressBar loadingProgressBar;
+
+	// Search Latency
+	private JLabel searchLatencyLabel;
+
+	// Menu Components
+	private JMenuBar menuBar;
+	private JMenuItem importMenuItem;
+	private JMenuItem exportMenuItem;
+
 	// Advanced Search Components
 	private JCheckBox searchDirCastChBx;
 	private JComboBox<String> searchDirCastComBx;
@@ -62,6 +82,7 @@ public class MovieCollectionView extends JPanel {
 	private JComboBox<String> searchRatingComBx;
 	private JComboBox<Rating> searchRatingMinComBx;
 	private JComboBox<Rating> searchRatingMaxComBx;
+	private FacetCounts facetCounts;
 
 	// Cast / Director
 	/**
@@ -138,9 +159,9 @@ public class MovieCollectionView extends JPanel {
 	}
 
 	/**
-	 * @return the table's default model
+	 * @return the table's movie model
 	 */
-	public DefaultTableModel getTableModel() {
+	public MovieTableModel getTableModel() {
 		return tableModel;
 	}
 
@@ -231,12 +252,59 @@ public class MovieCollectionView extends JPanel {
 		return quickFilterComboBox;
 	}
 
+	// Loading Progress
+	/**
+	 * @return the progress bar shown while the collection loads
+	 */
+	public JProgressBar getLoadingProgressBar() {
+		return loadingProgressBar;
+	}
+
+	/**
+	 * @return the label showing how long the latest search took
+	 */
+	public JLabel getSearchLatencyLabel() {
+		return searchLatencyLabel;
+	}
+
+	// Menu
+	/**
+	 * @return the menu bar of the application window
+	 */
+	public JMenuBar getMenuBar() {
+		return menuBar;
+	}
+
+	/**
+	 * @return the import-movies menu item
+	 */
+	public JMenuItem getImportMenuItem() {
+		return importMenuItem;
+	}
+
+	/**
+	 * @return the export-movies menu item
+	 */
+	public JMenuItem getExportMenuItem() {
+		return exportMenuItem;
+	}
+
 	/**
 	 * Constructs a Movie Collection View.
 	 */
 	public MovieCollectionView() {
 		setLayout(null);
 
+		// File Menu
+		this.menuBar = new JMenuBar();
+		JMenu fileMenu = new JMenu("File");
+		this.importMenuItem = new JMenuItem("Import Movies...");
+		fileMenu.add(importMenuItem);
+		this.exportMenuItem = new JMenuItem("Export Shown Movies...");
+		fileMenu.add(exportMenuItem);
+		menuBar.add(fileMenu);
+		// ---
+
 		// Header Label
 		JLabel collectionLabel = new JLabel("My Movie Collection");
 		ImageIcon icon = new ImageIcon(
@@ -248,6 +316,23 @@ public class MovieCollectionView extends JPanel {
 		this.add(collectionLabel);
 		// ---
 
+		// Loading Progress Bar
+		this.loadingProgressBar = new JProgressBar(0, 100);
+		loadingProgressBar.setStringPainted(true);
+		loadingProgressBar.setLocation(280, 35);
+		loadingProgressBar.setSize(190, 25);
+		loadingProgressBar.setVisible(false);
+		this.add(loadingProgressBar);
+		// ---
+
+		// Search Latency Label
+		this.searchLatencyLabel = new JLabel();
+		searchLatencyLabel.setHorizontalAlignment(SwingConstants.RIGHT);
+		searchLatencyLabel.setLocation(280, 12);
+		searchLatencyLabel.setSize(190, 20);
+		this.add(searchLatencyLabel);
+		// ---
+
 		// Quick Search Label
 		JLabel titleSearchLabel = new JLabel("Quick Filter");
 		titleSearchLabel.setLocation(490, 15);
@@ -270,8 +355,7 @@ public class MovieCollectionView extends JPanel {
 		// ---
 
 		// Movie Collection Table
-		this.tableModel = new DefaultTableModel(new String[] { "Title", "Director", "Genre", "Year", "Rating", "Cast" },
-				0);
+		this.tableModel = new MovieTableModel();
 		this.movieCollectionTable = new JTable(tableModel) {
 			// Prevent Cell Editing
 			public boolean isCellEditable(int row, int column) {
@@ -425,6 +509,25 @@ public class MovieCollectionView extends JPanel {
 		advancedSearchClearBtn.setSize(100, 25);
 		advancedSearchClearBtn.setEnabled(false);
 		this.add(advancedSearchClearBtn);
+
+		// Show the number of matching movies next to each genre and rating
+		DefaultListCellRenderer facetRenderer = new DefaultListCellRenderer() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected,
+					boolean cellHasFocus) {
+				FacetCounts counts = facetCounts;
+				if (counts != null && index != -1) {
+					int count = value instanceof Genre ? counts.getCount((Genre) value) : counts.getCount((Rating) value);
+					value = value + " (" + count + ")";
+				}
+				return super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+			}
+		};
+		searchGenreItem.setRenderer(facetRenderer);
+		searchRatingMinComBx.setRenderer(facetRenderer);
+		searchRatingMaxComBx.setRenderer(facetRenderer);
 		// ---
 
 		// Add Button
@@ -443,41 +546,33 @@ public class MovieCollectionView extends JPanel {
 	}
 
 	/**
-	 * Refreshes view controller's elements
+	 * Shows the number of movies matching each genre and rating option of the
+	 * advanced search
 	 * 
-	 * @param movieCollection the movie array to display in the collection table
+	 * @param facetCounts the counts to show, or null to show no counts
 	 */
-	public void update(Movie[] movieCollection) {
-		// Clear the Table
-		this.tableModel.setRowCount(0);
-
-		// Add Movies to Table
-		for (Movie movie : movieCollection) {
-			this.tableModel.addRow(movieToObjArray(movie));
+	public void setFacetCounts(FacetCounts facetCounts) {
+		this.facetCounts = facetCounts;
+		for (JComboBox<?> comboBox : new JComboBox<?>[] { this.searchGenreItem, this.searchRatingMinComBx,
+				this.searchRatingMaxComBx }) {
+			// The counts may arrive while the options are shown
+			Object popup = comboBox.getAccessibleContext().getAccessibleChild(0);
+			if (popup instanceof ComboPopup) {
+				((ComboPopup) popup).getList().repaint();
+			}
 		}
-
-		// Enable/Disable Remove Button
-		this.removeBtn.setEnabled(this.movieCollectionTable.getSelectedRow() != -1);
 	}
 
 	/**
-	 * Converts a Movie into an Object Array
+	 * Refreshes view controller's elements
 	 * 
-	 * @param movie the input movie to convert
-	 * @return an object array of the input movie
+	 * @param movieCollection the movies to display in the collection table
 	 */
-	public static Object[] movieToObjArray(Movie movie) {
-		// Split Movie into respective sections
-		Object[] initList = new Object[6];
-
-		initList[0] = movie.getTitle();
-		initList[1] = movie.getDirector();
-		initList[2] = movie.getGenre();
-		initList[3] = movie.getReleaseYear();
-		initList[4] = movie.getRating();
-		initList[5] = movie.getStringCastList();
-
-		return initList;
+	public void update(List<Movie> movieCollection) {
+		// Show the Movies in the Table
+		this.tableModel.setMovies(movieCollection);
+
+		// Enable/Disable Remove Button
+		this.removeBtn.setEnabled(this.movieCollectionTable.getSelectedRow() != -1);
 	}
-	
 }
@@ -0,0 +1,389 @@
+package moviecollection;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Streaming Exporter for Movies.
+ *
+ * Movies are written one at a time through a fixed-size buffer, so exporting
+ * uses the same memory regardless of how many movies are exported. Movies can
+ * be exported as CSV (readable by the {@link BulkImporter}), as JSON Lines or
+ * as a snapshot that can be used as a data file.
+ *
+ * @author Olaf Wrieden
+ * @version 1.0
+ */
+public class MovieExporter {
+
+	/**
+	 * Formats Movies can be Exported in.
+	 */
+	public enum Format {
+		CSV, JSON_LINES, BINARY
+	}
+
+	// Exporter Settings
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final int STRING_CACHE_SIZE = 4096;
+
+	// Exporter Attributes
+	private final Format format;
+
+	/**
+	 * Constructs a Movie Exporter
+	 *
+	 * @param format the format to export movies in
+	 */
+	public MovieExporter(Format format) {
+		this.format = format;
+	}
+
+	/**
+	 * Chooses the format by the file's extension: ".json" and ".jsonl" for JSON
+	 * Lines, ".bin" for a snapshot and CSV for all others.
+	 *
+	 * @param file the file to export to
+	 * @return the format of the file
+	 */
+	public static Format formatOf(File file) {
+		String name = file.getName().toLowerCase(Locale.ROOT);
+		if (name.endsWith(".jsonl") || name.endsWith(".json")) {
+			return Format.JSON_LINES;
+		}
+		if (name.endsWith(".bin")) {
+			return Format.BINARY;
+		}
+		return Format.CSV;
+	}
+
+	/**
+	 * Exports the movies to the file
+	 *
+	 * @param movies the movies to export
+	 * @param file   the file to export to
+	 * @return the number of exported movies
+	 * @throws IOException if the file could not be written
+	 */
+	public long export(Iterable<? extends Movie> movies, File file) throws IOException {
+		return export(movies, movie -> true, file);
+	}
+
+	/**
+	 * Exports the movies matching the filter to the file, without collecting
+	 * the matches first
+	 *
+	 * @param movies the movies to export
+	 * @param filter selects the movies to export
+	 * @param file   the file to export to
+	 * @return the number of exported movies
+	 * @throws IOException if the file could not be written
+	 */
+	public long export(Iterable<? extends Movie> movies, Predicate<? super Movie> filter, File file)
+			throws IOException {
+		if (this.format == Format.BINARY) {
+			return exportSnapshot(movies, filter, file);
+		}
+		long count = 0;
+		try (Writer out = new BufferedWriter(
+				new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+			if (this.format == Format.CSV) {
+				out.write("title,director,genre,year,rating,cast\n");
+			}
+			for (Movie movie : movies) {
+				if (!filter.test(movie)) {
+					continue;
+				}
+				if (this.format == Format.CSV) {
+					writeCsv(out, movie);
+				} else {
+					writeJson(out, movie);
+				}
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Writes a movie as a CSV row
+	 *
+	 * @param out   the writer to write to
+	 * @param movie the movie to write
+	 * @throws IOException if the movie could not be written
+	 */
+	private static void writeCsv(Writer out, Movie movie) throws IOException {
+		writeCsvField(out, movie.getTitle());
+		out.write(',');
+		writeCsvField(out, movie.getDirector());
+		out.write(',');
+		out.write(movie.getGenre().name());
+		out.write(',');
+		out.write(Integer.toString(movie.getReleaseYear()));
+		out.write(',');
+		out.write(movie.getRating().name());
+		out.write(',');
+		String[] castList = movie.getCastList();
+		writeCsvField(out, castList == null ? "" : String.join(", ", castList));
+		out.write('\n');
+	}
+
+	/**
+	 * Writes a CSV field, quoting it if it contains a delimiter, quote or line
+	 * break
+	 *
+	 * @param out   the writer to write to
+	 * @param value the field's value
+	 * @throws IOException if the field could not be written
+	 */
+	private static void writeCsvField(Writer out, String value) throws IOException {
+		if (value == null) {
+			return;
+		}
+		if (value.indexOf(',') == -1 && value.indexOf('"') == -1 && value.indexOf('\n') == -1
+				&& value.indexOf('\r') == -1) {
+			out.write(value);
+			return;
+		}
+		out.write('"');
+		out.write(value.replace("\"", "\"\""));
+		out.write('"');
+	}
+
+	/**
+	 * Writes a movie as a line of JSON
+	 *
+	 * @param out   the writer to write to
+	 * @param movie the movie to write
+	 * @throws IOException if the movie could not be written
+	 */
+	private static void writeJson(Writer out, Movie movie) throws IOException {
+		out.write("{\"title\":");
+		writeJsonString(out, movie.getTitle());
+		out.write(",\"director\":");
+		writeJsonString(out, movie.getDirector());
+		out.write(",\"genre\":\"");
+		out.write(movie.getGenre().name());
+		out.write("\",\"year\":");
+		out.write(Integer.toString(movie.getReleaseYear()));
+		out.write(",\"rating\":\"");
+		out.write(movie.getRating().name());
+		out.write("\",\"cast\":[");
+		String[] castList = movie.getCastList();
+		if (castList != null) {
+			for (int i = 0; i < castList.length; i++) {
+				if (i > 0) {
+					out.write(',');
+				}
+				writeJsonString(out, castList[i]);
+			}
+		}
+		out.write("]}\n");
+	}
+
+	/**
+	 * Writes a JSON string literal
+	 *
+	 * @param out   the writer to write to
+	 * @param value the string to write, or null
+	 * @throws IOException if the string could not be written
+	 */
+	private static void writeJsonString(Writer out, String value) throws IOException {
+		if (value == null) {
+			out.write("null");
+			return;
+		}
+		out.write('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+			case '"':
+				out.write("\\\"");
+				break;
+			case '\\':
+				out.write("\\\\");
+				break;
+			case '\n':
+				out.write("\\n");
+				break;
+			case '\r':
+				out.write("\\r");
+				break;
+			case '\t':
+				out.write("\\t");
+				break;
+			default:
+				if (c < 0x20) {
+					out.write(String.format("\\u%04x", (int) c));
+				} else {
+					out.write(c);
+				}
+			}
+		}
+		out.write('"');
+	}
+
+	/**
+	 * Exports the movies as a snapshot. Every section of the snapshot is
+	 * spooled to its own temporary file while the movies are read, then the
+	 * sections are joined behind the header. Strings are only shared with the
+	 * recently written strings, which keeps the string table lookup bounded.
+	 *
+	 * @param movies the movies to export
+	 * @param filter selects the movies to export
+	 * @param file   the file to export to
+	 * @return the number of exported movies
+	 * @throws IOException if the file could not be written
+	 */
+	private static long exportSnapshot(Iterable<? extends Movie> movies, Predicate<? super Movie> filter, File file)
+			throws IOException {
+		Map<String, Integer> recentStrings = new LinkedHashMap<String, Integer>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+				return size() > STRING_CACHE_SIZE;
+			}
+		};
+		Section[] sections = new Section[9];
+		try {
+			for (int i = 0; i < sections.length; i++) {
+				sections[i] = new Section(file);
+			}
+			Section stringOffsets = sections[0], strings = sections[1], titles = sections[2], directors = sections[3],
+					castOffsets = sections[4], castMembers = sections[5], releaseYears = sections[6],
+					genres = sections[7], ratings = sections[8];
+
+			// Write the columns in a single pass over the movies
+			int rowCount = 0;
+			int castCount = 0;
+			int[] stringTable = new int[2]; // String count, string bytes
+			stringOffsets.out.writeInt(0);
+			castOffsets.out.writeInt(0);
+			for (Movie movie : movies) {
+				if (!filter.test(movie)) {
+					continue;
+				}
+				titles.out.writeInt(reference(movie.getTitle(), recentStrings, stringOffsets, strings, stringTable));
+				directors.out
+						.writeInt(reference(movie.getDirector(), recentStrings, stringOffsets, strings, stringTable));
+				String[] castList = movie.getCastList();
+				if (castList != null) {
+					for (String member : castList) {
+						castMembers.out.writeInt(reference(member, recentStrings, stringOffsets, strings, stringTable));
+						castCount++;
+					}
+				}
+				castOffsets.out.writeInt(castCount);
+				releaseYears.out.writeInt(movie.getReleaseYear());
+				genres.out.write(movie.getGenre().ordinal());
+				ratings.out.write(movie.getRating().ordinal());
+				rowCount++;
+			}
+
+			// Join the header and the sections in a temporary file, which then
+			// replaces the target file
+			File temp = new File(file.getPath() + ".tmp");
+			try (FileChannel target = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+					StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				ByteBuffer header = ByteBuffer.allocate(MovieSnapshot.headerSize(MovieSnapshot.VERSION));
+				header.putInt(MovieSnapshot.MAGIC).putInt(MovieSnapshot.VERSION).putLong(0).putInt(rowCount)
+						.putInt(stringTable[0]).putInt(castCount).putInt(stringTable[1]).flip();
+				while (header.hasRemaining()) {
+					target.write(header);
+				}
+				long position = MovieSnapshot.headerSize(MovieSnapshot.VERSION);
+				for (Section section : sections) {
+					section.out.close();
+					try (FileChannel source = FileChannel.open(section.file.toPath(), StandardOpenOption.READ)) {
+						long size = source.size();
+						for (long copied = 0; copied < size;) {
+							copied += source.transferTo(copied, size - copied, target.position(position + copied));
+						}
+						position += size;
+					}
+				}
+			} catch (IOException e) {
+				Files.deleteIfExists(temp.toPath());
+				throw e;
+			}
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			return rowCount;
+		} finally {
+			for (Section section : sections) {
+				if (section != null) {
+					section.out.close();
+					Files.deleteIfExists(section.file.toPath());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Looks up a string among the recently written strings, appending it to the
+	 * string table if it is not among them
+	 *
+	 * @param string        the string to look up
+	 * @param recentStrings the references of the recently written strings
+	 * @param stringOffsets the string table's offset section
+	 * @param strings       the string table's data section
+	 * @param stringTable   the string table's string count and size in bytes
+	 * @return the string table reference of the string
+	 * @throws IOException if the string could not be written
+	 */
+	private static int reference(String string, Map<String, Integer> recentStrings, Section stringOffsets,
+			Section strings, int[] stringTable) throws IOException {
+		if (string == null) {
+			return -1;
+		}
+		Integer reference = recentStrings.get(string);
+		if (reference != null) {
+			return reference;
+		}
+		byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		if (stringTable[1] + (long) bytes.length > Integer.MAX_VALUE) {
+			throw new IOException("The movies' strings exceed the size of a snapshot");
+		}
+		strings.out.write(bytes);
+		stringTable[1] += bytes.length;
+		stringOffsets.out.writeInt(stringTable[1]);
+		recentStrings.put(string, stringTable[0]);
+		return stringTable[0]++;
+	}
+
+	/**
+	 * A Section of a Snapshot, Spooled to a Temporary File.
+	 */
+	private static class Section {
+
+		// Section Attributes
+		private final File file;
+		private final DataOutputStream out;
+
+		/**
+		 * Constructs a Section
+		 *
+		 * @param target the file the snapshot is exported to
+		 * @throws IOException if the temporary file could not be created
+		 */
+		private Section(File target) throws IOException {
+			File directory = target.getAbsoluteFile().getParentFile();
+			this.file = File.createTempFile(target.getName() + ".", ".section", directory);
+			this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(this.file), BUFFER_SIZE));
+		}
+	}
+}
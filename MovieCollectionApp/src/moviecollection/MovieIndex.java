@@ -0,0 +1,149 @@
+package moviecollection;
+
+import java.util.Arrays;
+
+/**
+ * Base of the Indexes over the Rows of a Movie List.
+ *
+ * Rows added to the list are indexed when the index is next used, which also
+ * covers rows revealed while the list is being loaded. Searches on several
+ * threads may share the collection's read lock, so catching up is synchronized:
+ * rows are only added under the write lock, hence the first search to catch up
+ * indexes them while the others wait, and no search reads the index while it
+ * changes. Removed movies must be reported through {@link #remove(int, Movie)},
+ * as a removed snapshot row can no longer be told apart from a live one.
+ *
+ * @author Olaf Wrieden
+ * @version 1.0
+ */
+public abstract class MovieIndex {
+
+	// Index Attributes
+	protected final MovieList movies;
+	private int indexedRows;
+
+	/**
+	 * Constructs a Movie Index
+	 *
+	 * @param movies the movies to index
+	 */
+	protected MovieIndex(MovieList movies) {
+		this.movies = movies;
+	}
+
+	/**
+	 * Removes a movie from the index
+	 *
+	 * @param row   the row of the removed movie
+	 * @param movie the removed movie
+	 */
+	public synchronized void remove(int row, Movie movie) {
+		if (row < this.indexedRows) {
+			removeRow(row, movie);
+		}
+	}
+
+	/**
+	 * Indexes the rows added to the movie list since the index was last used
+	 */
+	protected synchronized void catchUp() {
+		int rowCount = this.movies.getRowCount();
+		for (int row = this.indexedRows; row < rowCount; row++) {
+			if (!this.movies.isRemoved(row)) {
+				addRow(row);
+			}
+		}
+		this.indexedRows = rowCount;
+	}
+
+	/**
+	 * Adds the movie stored in a row to the index. Rows are added in ascending
+	 * order. Indexes over single attributes override this to read them without
+	 * decoding the movie.
+	 *
+	 * @param row the row of the movie
+	 */
+	protected void addRow(int row) {
+		addRow(row, this.movies.getMovieAtRow(row));
+	}
+
+	/**
+	 * Adds a movie to the index. Rows are added in ascending order.
+	 *
+	 * @param row   the row of the movie
+	 * @param movie the movie to add
+	 */
+	protected abstract void addRow(int row, Movie movie);
+
+	/**
+	 * Removes an indexed movie from the index
+	 *
+	 * @param row   the row of the movie
+	 * @param movie the movie to remove
+	 */
+	protected abstract void removeRow(int row, Movie movie);
+
+	/**
+	 * Drops the rows of movies that are not visible in the list
+	 *
+	 * @param rows ascending rows, which are filtered in place
+	 * @return the ascending rows of the visible movies
+	 */
+	protected int[] visibleRows(int[] rows) {
+		int count = 0;
+		for (int row : rows) {
+			if (this.movies.positionOfRow(row) != -1) {
+				rows[count++] = row;
+			}
+		}
+		return count == rows.length ? rows : Arrays.copyOf(rows, count);
+	}
+
+	/**
+	 * @return the ascending rows of all visible movies
+	 */
+	protected int[] allRows() {
+		int[] rows = new int[this.movies.size()];
+		for (int i = 0; i < rows.length; i++) {
+			rows[i] = this.movies.getRowAt(i);
+		}
+		return rows;
+	}
+
+	/**
+	 * Removes a row from a posting list
+	 *
+	 * @param rows the ascending rows of a posting list
+	 * @param row  the row to remove
+	 * @return true if the posting list is empty afterwards, else false
+	 */
+	protected static boolean removeFromPostings(IntList rows, int row) {
+		int position = rows.binarySearch(row);
+		if (position >= 0) {
+			rows.removeAt(position);
+		}
+		return rows.isEmpty();
+	}
+
+	/**
+	 * @param a ascending rows
+	 * @param b ascending rows
+	 * @return the ascending rows found in both
+	 */
+	protected static int[] intersect(int[] a, int[] b) {
+		int[] rows = new int[Math.min(a.length, b.length)];
+		int count = 0;
+		for (int i = 0, j = 0; i < a.length && j < b.length;) {
+			if (a[i] < b[j]) {
+				i++;
+			} else if (a[i] > b[j]) {
+				j++;
+			} else {
+				rows[count++] = a[i];
+				i++;
+				j++;
+			}
+		}
+		return Arrays.copyOf(rows, count);
+	}
+}
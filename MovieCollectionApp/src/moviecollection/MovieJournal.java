@@ -0,0 +1,612 @@
+package moviecollection;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Append-Only Journal of the Changes Made to a Movie Collection.
+ *
+ * Every added and removed movie is appended to the journal as a compact,
+ * checksummed record. Records are written and forced to disk by a background
+ * thread, which commits all records appended within a short window together.
+ *
+ * Journals are numbered by generation. Once the current journal grows past a
+ * size threshold, a new generation is started and the collection is written
+ * to a new snapshot in the background, after which the journals it holds are
+ * deleted. Each snapshot gets a file of its own, as the mapped data file
+ * cannot be replaced on every platform; the newest one is moved over the data
+ * file on the next startup, before the data file is mapped. The journals the
+ * snapshot does not hold yet are then replayed on top of it.
+ *
+ * @author Olaf Wrieden
+ * @version 1.0
+ */
+public class MovieJournal {
+
+	// Format Attributes
+	public static final int MAGIC = 0x4D434A4E;
+	public static final int VERSION = 1;
+	private static final int HEADER_SIZE = 2 * Integer.BYTES + Long.BYTES;
+	private static final byte ADD = 1;
+	private static final byte REMOVE = 2;
+
+	// Infixes of the Files Kept Beside the Data File
+	private static final String JOURNAL = ".journal.";
+	private static final String SNAPSHOT = ".snapshot.";
+
+	// Default Settings
+	public static final long DEFAULT_COMPACTION_THRESHOLD = 8L << 20;
+	public static final long DEFAULT_COMMIT_WINDOW_MILLIS = 5;
+
+	// Journal Attributes
+	private final File dataFile;
+	private final long compactionThreshold;
+	private final long commitWindowMillis;
+	private final ExecutorService compactor;
+	private final Thread committer;
+	private volatile boolean compacting;
+	private long generation;
+	private long journalSize;
+
+	// Group Commit State (guarded by lock)
+	private final Object lock = new Object();
+	private FileChannel channel;
+	private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+	private long appendedRecords;
+	private long durableRecords;
+	private int waitingSyncs;
+	private IOException failure;
+	private boolean closed;
+
+	/**
+	 * Constructs a Movie Journal appending to the given generation
+	 *
+	 * @param dataFile            the snapshot file the journal belongs to
+	 * @param generation          the generation to append to
+	 * @param compactionThreshold the journal size that triggers a compaction
+	 * @param commitWindowMillis  the time to gather records for a commit
+	 * @throws IOException if the journal file could not be opened
+	 */
+	private MovieJournal(File dataFile, long generation, long compactionThreshold, long commitWindowMillis)
+			throws IOException {
+		this.dataFile = dataFile;
+		this.compactionThreshold = compactionThreshold;
+		this.commitWindowMillis = commitWindowMillis;
+		this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "movie-journal-compactor");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.openGeneration(generation);
+		this.committer = new Thread(this::commitLoop, "movie-journal-committer");
+		this.committer.setDaemon(true);
+		this.committer.start();
+	}
+
+	/**
+	 * Opens the journal of a data file with the default settings, replaying the
+	 * journaled changes into the collection first
+	 *
+	 * @param dataFile           the snapshot file the journal belongs to
+	 * @param snapshotGeneration the generation of the loaded snapshot
+	 * @param collection         the collection loaded from the snapshot
+	 * @return the journal, ready to append to
+	 * @throws IOException if the journal could not be replayed or opened
+	 */
+	public static MovieJournal open(File dataFile, long snapshotGeneration, MovieCollection collection)
+			throws IOException {
+		return open(dataFile, snapshotGeneration, collection, DEFAULT_COMPACTION_THRESHOLD,
+				DEFAULT_COMMIT_WINDOW_MILLIS);
+	}
+
+	/**
+	 * Opens the journal of a data file, replaying the journaled changes into the
+	 * collection first
+	 *
+	 * @param dataFile            the snapshot file the journal belongs to
+	 * @param snapshotGeneration  the generation of the loaded snapshot
+	 * @param collection          the collection loaded from the snapshot
+	 * @param compactionThreshold the journal size that triggers a compaction
+	 * @param commitWindowMillis  the time to gather records for a commit
+	 * @return the journal, ready to append to
+	 * @throws IOException if the journal could not be replayed or opened
+	 */
+	public static MovieJournal open(File dataFile, long snapshotGeneration, MovieCollection collection,
+			long compactionThreshold, long commitWindowMillis) throws IOException {
+		long generation = snapshotGeneration;
+		for (long journal : generations(dataFile, JOURNAL)) {
+			File file = journalFile(dataFile, journal);
+			if (journal < snapshotGeneration) {
+				// Already folded into the snapshot by a compaction
+				file.delete();
+			} else {
+				replay(file, collection);
+				generation = journal;
+			}
+		}
+		return new MovieJournal(dataFile, generation, compactionThreshold, commitWindowMillis);
+	}
+
+	/**
+	 * Writes all movies of a collection to a new snapshot when there is no open
+	 * journal. The snapshot holds every change journaled so far, so it is given
+	 * a generation above every journal and snapshot on disk, and those are
+	 * deleted once it is written. It replaces the data file on the next startup.
+	 *
+	 * @param movies   the movies to write
+	 * @param dataFile the snapshot file of the collection
+	 * @throws IOException if the snapshot could not be written
+	 */
+	public static void writeSnapshot(List<Movie> movies, File dataFile) throws IOException {
+		ArrayList<Long> journals = generations(dataFile, JOURNAL);
+		ArrayList<Long> snapshots = generations(dataFile, SNAPSHOT);
+		long generation = Math.max(journals.isEmpty() ? 0 : journals.get(journals.size() - 1) + 1,
+				snapshots.isEmpty() ? 0 : snapshots.get(snapshots.size() - 1) + 1);
+		MovieSnapshot.write(movies, snapshotFile(dataFile, generation), generation);
+		deleteGenerations(dataFile, generation);
+	}
+
+	/**
+	 * Moves the newest snapshot written since the last startup over the data
+	 * file, and deletes the older ones. The data file must not be mapped yet.
+	 *
+	 * @param dataFile the snapshot file of a collection
+	 * @throws IOException if the snapshot could not be moved
+	 */
+	public static void installSnapshot(File dataFile) throws IOException {
+		ArrayList<Long> snapshots = generations(dataFile, SNAPSHOT);
+		if (snapshots.isEmpty()) {
+			return;
+		}
+		long generation = snapshots.get(snapshots.size() - 1);
+		Files.move(snapshotFile(dataFile, generation).toPath(), dataFile.toPath(),
+				StandardCopyOption.REPLACE_EXISTING);
+		deleteGenerations(dataFile, generation);
+	}
+
+	/**
+	 * Checks if a file is a data file or one of the files kept beside it: its
+	 * journals, backups and temporary files. Such files must never be written
+	 * to by anything but the collection itself.
+	 *
+	 * @param dataFile the snapshot file of a collection
+	 * @param file     the file to check
+	 * @return true if the file belongs to the data file, else false
+	 */
+	public static boolean belongsTo(File dataFile, File file) {
+		Path data = dataFile.toPath().toAbsolutePath().normalize();
+		Path path = file.toPath().toAbsolutePath().normalize();
+		try {
+			if (Files.exists(data) && Files.exists(path) && Files.isSameFile(data, path)) {
+				return true;
+			}
+		} catch (IOException e) {
+			// Compare the paths instead
+		}
+		String name = data.getFileName().toString();
+		return path.equals(data) || (path.getParent() != null && path.getParent().equals(data.getParent())
+				&& path.getFileName().toString().startsWith(name + "."));
+	}
+
+	/**
+	 * Appends the addition of a movie to the journal
+	 *
+	 * @param movie the movie added to the collection
+	 */
+	public void logAdd(Movie movie) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeByte(ADD);
+			writeString(out, movie.getTitle());
+			writeString(out, movie.getDirector());
+			out.writeByte(movie.getGenre().ordinal());
+			out.writeInt(movie.getReleaseYear());
+			out.writeByte(movie.getRating().ordinal());
+			String[] castList = movie.getCastList();
+			if (castList == null) {
+				castList = new String[0];
+			}
+			out.writeInt(castList.length);
+			for (String member : castList) {
+				writeString(out, member);
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		append(bytes.toByteArray());
+	}
+
+	/**
+	 * Appends the removal of a movie to the journal
+	 *
+	 * @param index the index of the movie removed from the collection
+	 */
+	public void logRemove(int index) {
+		ByteBuffer record = ByteBuffer.allocate(1 + Integer.BYTES);
+		record.put(REMOVE).putInt(index);
+		append(record.array());
+	}
+
+	/**
+	 * Starts a compaction if the journal has grown past its threshold
+	 *
+	 * @param movies the current movies of the collection
+	 */
+	public void compactIfNeeded(MovieList movies) {
+		if (this.compacting || this.journalSize < this.compactionThreshold) {
+			return;
+		}
+		this.compacting = true;
+		final MovieList contents = movies.copy();
+		final long snapshotGeneration;
+		try {
+			// Later changes go to the next generation
+			this.sync();
+			synchronized (this.lock) {
+				this.channel.close();
+				this.openGeneration(this.generation + 1);
+				snapshotGeneration = this.generation;
+			}
+		} catch (IOException e) {
+			this.compacting = false;
+			e.printStackTrace();
+			return;
+		}
+		this.compactor.execute(() -> {
+			try {
+				MovieSnapshot.write(contents, snapshotFile(this.dataFile, snapshotGeneration), snapshotGeneration);
+				deleteGenerations(this.dataFile, snapshotGeneration);
+				System.out.println("COMPACTED: " + contents.size() + " movies were written to a new snapshot.");
+			} catch (IOException e) {
+				// The journals are kept, so the next compaction will retry
+				e.printStackTrace();
+			} finally {
+				this.compacting = false;
+			}
+		});
+	}
+
+	/**
+	 * Waits until all appended records are on disk
+	 *
+	 * @throws IOException if the journal could not be written
+	 */
+	public void sync() throws IOException {
+		synchronized (this.lock) {
+			long target = this.appendedRecords;
+			this.waitingSyncs++;
+			this.lock.notifyAll();
+			try {
+				while (this.durableRecords < target && this.failure == null) {
+					this.lock.wait();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while writing the journal", e);
+			} finally {
+				this.waitingSyncs--;
+			}
+			if (this.failure != null) {
+				throw this.failure;
+			}
+		}
+	}
+
+	/**
+	 * Writes all appended records, waits for a running compaction and closes the
+	 * journal
+	 *
+	 * @throws IOException if the journal could not be written
+	 */
+	public void close() throws IOException {
+		try {
+			this.sync();
+		} finally {
+			synchronized (this.lock) {
+				this.closed = true;
+				this.lock.notifyAll();
+			}
+			this.compactor.shutdown();
+			try {
+				this.compactor.awaitTermination(1, TimeUnit.MINUTES);
+				this.committer.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			this.channel.close();
+		}
+	}
+
+	/**
+	 * Adds a record to the pending commit
+	 *
+	 * @param payload the record's payload
+	 */
+	private void append(byte[] payload) {
+		CRC32 crc = new CRC32();
+		crc.update(payload, 0, payload.length);
+		ByteBuffer record = ByteBuffer.allocate(2 * Integer.BYTES + payload.length);
+		record.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+		synchronized (this.lock) {
+			if (this.closed) {
+				throw new IllegalStateException("The journal is closed");
+			}
+			this.pending.write(record.array(), 0, record.capacity());
+			this.appendedRecords++;
+			this.journalSize += record.capacity();
+			this.lock.notifyAll();
+		}
+	}
+
+	/**
+	 * Writes pending records in groups until the journal is closed
+	 */
+	private void commitLoop() {
+		while (true) {
+			ByteArrayOutputStream batch;
+			long batchRecords;
+			FileChannel target;
+			synchronized (this.lock) {
+				try {
+					while (this.pending.size() == 0 && !this.closed) {
+						this.lock.wait();
+					}
+					if (this.pending.size() == 0) {
+						return;
+					}
+					// Give other records the chance to join this commit
+					if (!this.closed && this.waitingSyncs == 0) {
+						this.lock.wait(this.commitWindowMillis);
+					}
+				} catch (InterruptedException e) {
+					return;
+				}
+				batch = this.pending;
+				batchRecords = this.appendedRecords;
+				target = this.channel;
+				this.pending = new ByteArrayOutputStream();
+			}
+
+			IOException error = null;
+			try {
+				ByteBuffer buffer = ByteBuffer.wrap(batch.toByteArray());
+				while (buffer.hasRemaining()) {
+					target.write(buffer);
+				}
+				target.force(false);
+			} catch (IOException e) {
+				error = e;
+			}
+
+			synchronized (this.lock) {
+				if (error != null && this.failure == null) {
+					this.failure = error;
+				}
+				this.durableRecords = batchRecords;
+				this.lock.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Opens the journal file of a generation for appending, creating it if it
+	 * does not exist yet
+	 *
+	 * @param generation the generation to append to
+	 * @throws IOException if the journal file could not be opened
+	 */
+	private void openGeneration(long generation) throws IOException {
+		File file = journalFile(this.dataFile, generation);
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		if (channel.size() < HEADER_SIZE) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			header.putInt(MAGIC).putInt(VERSION).putLong(generation).flip();
+			channel.truncate(0);
+			channel.write(header);
+			channel.force(true);
+		}
+		channel.position(channel.size());
+		this.channel = channel;
+		this.generation = generation;
+		this.journalSize = channel.size();
+	}
+
+	/**
+	 * Applies the records of a journal file to the collection. A record that was
+	 * only partially written when the application stopped ends the journal and
+	 * is cut off.
+	 *
+	 * @param file       the journal file to replay
+	 * @param collection the collection to apply the records to
+	 * @throws IOException if the journal does not match the collection
+	 */
+	private static void replay(File file, MovieCollection collection) throws IOException {
+		long validLength = HEADER_SIZE;
+		int records = 0;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				throw new IOException(file.getName() + " is not a movie collection journal");
+			}
+			in.readLong(); // Generation
+			while (true) {
+				int length = in.readInt();
+				int checksum = in.readInt();
+				if (length <= 0 || length > file.length() - validLength) {
+					break;
+				}
+				byte[] payload = new byte[length];
+				in.readFully(payload);
+				CRC32 crc = new CRC32();
+				crc.update(payload, 0, length);
+				if ((int) crc.getValue() != checksum) {
+					break;
+				}
+				apply(payload, collection);
+				validLength += 2 * Integer.BYTES + length;
+				records++;
+			}
+		} catch (EOFException eof) {
+			// End of the journal
+		}
+
+		// Cut off a partially written record
+		if (file.length() > validLength) {
+			try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+				channel.truncate(validLength);
+			}
+		}
+		System.out.println("REPLAYED: " + records + " changes from " + file.getName());
+	}
+
+	/**
+	 * Applies a single journal record to the collection
+	 *
+	 * @param payload    the record's payload
+	 * @param collection the collection to apply the record to
+	 * @throws IOException if the record does not match the collection
+	 */
+	private static void apply(byte[] payload, MovieCollection collection) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+		switch (in.readByte()) {
+		case ADD:
+			String title = readString(in);
+			String director = readString(in);
+			Genre genre = Genre.values()[in.readByte()];
+			int releaseYear = in.readInt();
+			Rating rating = Rating.values()[in.readByte()];
+			String[] castList = new String[in.readInt()];
+			for (int i = 0; i < castList.length; i++) {
+				castList[i] = readString(in);
+			}
+			collection.addToMovieCollection(new Movie(title, director, genre, releaseYear, rating, castList));
+			break;
+		case REMOVE:
+			int index = in.readInt();
+			if (index < 0 || index >= collection.getMovieCollection().size()) {
+				throw new IOException("The journal does not match the data file");
+			}
+			collection.removeFromMovieCollection(index);
+			break;
+		default:
+			throw new IOException("Unknown journal record");
+		}
+	}
+
+	/**
+	 * @param dataFile   the snapshot file the journal belongs to
+	 * @param generation the generation of the journal
+	 * @return the journal file of the generation
+	 */
+	private static File journalFile(File dataFile, long generation) {
+		return new File(dataFile.getPath() + JOURNAL + generation);
+	}
+
+	/**
+	 * @param dataFile   the snapshot file the snapshot belongs to
+	 * @param generation the generation of the snapshot
+	 * @return the file of a snapshot not moved over the data file yet
+	 */
+	private static File snapshotFile(File dataFile, long generation) {
+		return new File(dataFile.getPath() + SNAPSHOT + generation);
+	}
+
+	/**
+	 * Deletes the journals folded into a snapshot and the older snapshots. A
+	 * snapshot that cannot be deleted yet is deleted on the next startup.
+	 *
+	 * @param dataFile   the snapshot file the files belong to
+	 * @param generation the generation of the snapshot
+	 */
+	private static void deleteGenerations(File dataFile, long generation) {
+		for (long journal : generations(dataFile, JOURNAL)) {
+			if (journal < generation) {
+				journalFile(dataFile, journal).delete();
+			}
+		}
+		for (long snapshot : generations(dataFile, SNAPSHOT)) {
+			if (snapshot < generation) {
+				snapshotFile(dataFile, snapshot).delete();
+			}
+		}
+	}
+
+	/**
+	 * @param dataFile the snapshot file the files belong to
+	 * @param infix    the infix naming the kind of file
+	 * @return the generations of all files of the kind, in ascending order
+	 */
+	private static ArrayList<Long> generations(File dataFile, String infix) {
+		ArrayList<Long> generations = new ArrayList<Long>();
+		File directory = dataFile.getAbsoluteFile().getParentFile();
+		String prefix = dataFile.getName() + infix;
+		String[] names = directory == null ? null : directory.list();
+		if (names != null) {
+			for (String name : names) {
+				if (name.startsWith(prefix)) {
+					try {
+						generations.add(Long.parseLong(name.substring(prefix.length())));
+					} catch (NumberFormatException e) {
+						// Not numbered by generation
+					}
+				}
+			}
+		}
+		Collections.sort(generations);
+		return generations;
+	}
+
+	/**
+	 * Writes a nullable, length-prefixed UTF-8 string
+	 *
+	 * @param out    the stream to write to
+	 * @param string the string to write
+	 * @throws IOException if the stream could not be written
+	 */
+	private static void writeString(DataOutputStream out, String string) throws IOException {
+		if (string == null) {
+			out.writeInt(-1);
+		} else {
+			byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	/**
+	 * Reads a nullable, length-prefixed UTF-8 string
+	 *
+	 * @param in the stream to read from
+	 * @return the string read
+	 * @throws IOException if the stream ends prematurely
+	 */
+	private static String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length == -1) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,541 @@
+package moviecollection;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * Ordered Storage of the Movies in a Collection.
+ *
+ * Movies are stored in rows. The first rows may come from a mapped snapshot;
+ * those are decoded when they are accessed and only a bounded number of them
+ * is kept decoded at a time. Movies added later are appended as new rows of
+ * a {@link MovieStore}, which are decoded and cached the same way. The store
+ * is kept on the Java heap, or outside of it for an off-heap list. A row keeps
+ * its number for the lifetime of the list, removing a movie only drops it from
+ * the order of rows.
+ *
+ * Changes made to a movie of the list are not kept once it is no longer
+ * cached. While a list is being loaded, only its loaded rows are visible and
+ * it cannot be changed.
+ *
+ * Rows serve as the ids of the movies. Removing a movie marks its row as a
+ * tombstone, which positions skip over until the order of rows is compacted
+ * once enough tombstones have piled up, so removals do not shift the order of
+ * all later movies.
+ *
+ * @author Olaf Wrieden
+ * @version 1.0
+ */
+public class MovieList extends AbstractList<Movie> implements RandomAccess {
+
+	// Number of decoded rows kept in memory
+	private static final int CACHE_SIZE = 4096;
+
+	// Number of tombstones after which the order of rows is compacted
+	private static final int COMPACTION_THRESHOLD = 1024;
+
+	// List Attributes
+	private final MappedMovieSnapshot snapshot;
+	private final int snapshotRows;
+	private final MovieStore appendedRows;
+	private final Map<Integer, Movie> decodedRows;
+	private int[] order;
+	private final IntList tombstones;
+	private long[] removedRows;
+	private int size;
+	private int loadedSize = Integer.MAX_VALUE;
+
+	/**
+	 * Constructs an empty Movie List
+	 */
+	public MovieList() {
+		this((MappedMovieSnapshot) null);
+	}
+
+	/**
+	 * Constructs a Movie List holding the movies in the given order
+	 *
+	 * @param movies the movies to hold
+	 */
+	public MovieList(Collection<? extends Movie> movies) {
+		this(null, new HeapMovieStore(movies.size()));
+		addAll(movies);
+	}
+
+	/**
+	 * Constructs a Movie List backed by a mapped snapshot
+	 *
+	 * @param snapshot the snapshot holding the initial movies, or null
+	 */
+	public MovieList(MappedMovieSnapshot snapshot) {
+		this(snapshot, false);
+	}
+
+	/**
+	 * Constructs a Movie List backed by a mapped snapshot
+	 *
+	 * @param snapshot the snapshot holding the initial movies, or null
+	 * @param offHeap  true to keep the movies added to the list outside of the
+	 *                 Java heap, else false
+	 */
+	public MovieList(MappedMovieSnapshot snapshot, boolean offHeap) {
+		this(snapshot, offHeap ? new DirectMovieStore() : new HeapMovieStore());
+	}
+
+	/**
+	 * Constructs a Movie List backed by a mapped snapshot and a store
+	 *
+	 * @param snapshot     the snapshot holding the initial movies, or null
+	 * @param appendedRows the store of the movies appended to the snapshot
+	 */
+	private MovieList(MappedMovieSnapshot snapshot, MovieStore appendedRows) {
+		this.snapshot = snapshot;
+		this.snapshotRows = snapshot == null ? 0 : snapshot.size();
+		this.appendedRows = appendedRows;
+		this.tombstones = new IntList();
+		this.removedRows = new long[0];
+		// Reading the cache reorders it, so searches on other threads lock it too
+		this.decodedRows = Collections.synchronizedMap(new LinkedHashMap<Integer, Movie>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, Movie> eldest) {
+				return size() > CACHE_SIZE;
+			}
+		});
+		this.size = this.snapshotRows;
+	}
+
+	/**
+	 * Copies the list. The copy shares the snapshot and the stored rows with
+	 * this list, but not the order of rows, so it can be read by another thread
+	 * while this list keeps changing.
+	 *
+	 * @return a copy of the list
+	 */
+	public MovieList copy() {
+		MovieList copy = new MovieList(this.snapshot, this.appendedRows.copy());
+		if (this.order != null) {
+			copy.order = Arrays.copyOf(this.order, this.size + this.tombstones.size());
+			copy.compact(this.tombstones, copy.order.length);
+		}
+		copy.removedRows = this.removedRows.clone();
+		copy.size = this.size;
+		return copy;
+	}
+
+	/**
+	 * @param index the position of the movie in the list
+	 * @return the movie at the position
+	 */
+	@Override
+	public Movie get(int index) {
+		return getRow(rowAt(index));
+	}
+
+	/**
+	 * Iterates over the movies in order. Movies that are not decoded already
+	 * are decoded without being cached, like {@link #getMovieAtRow(int)}, so
+	 * that iterating over the whole list does not displace the cached movies.
+	 *
+	 * @return an iterator over the movies in the list
+	 */
+	@Override
+	public Iterator<Movie> iterator() {
+		return new Iterator<Movie>() {
+			private int cursor;
+			private int last = -1;
+			private int expectedModCount = MovieList.this.modCount;
+
+			@Override
+			public boolean hasNext() {
+				return this.cursor < size();
+			}
+
+			@Override
+			public Movie next() {
+				checkModCount();
+				if (this.cursor >= size()) {
+					throw new NoSuchElementException();
+				}
+				this.last = this.cursor++;
+				return getMovieAtRow(rowAt(this.last));
+			}
+
+			@Override
+			public void remove() {
+				if (this.last == -1) {
+					throw new IllegalStateException();
+				}
+				checkModCount();
+				MovieList.this.remove(this.last);
+				this.cursor = this.last;
+				this.last = -1;
+				this.expectedModCount = MovieList.this.modCount;
+			}
+
+			private void checkModCount() {
+				if (MovieList.this.modCount != this.expectedModCount) {
+					throw new ConcurrentModificationException();
+				}
+			}
+		};
+	}
+
+	/**
+	 * @return the number of movies in the list
+	 */
+	@Override
+	public int size() {
+		return Math.min(this.size, this.loadedSize);
+	}
+
+	/**
+	 * @return the number of movies in the list, including those not loaded yet
+	 */
+	public int getTotalSize() {
+		return this.size;
+	}
+
+	/**
+	 * @return the number of rows ever used by the list, including those of
+	 *         removed movies
+	 */
+	public int getRowCount() {
+		return this.snapshotRows + this.appendedRows.size();
+	}
+
+	/**
+	 * @param index the position of a movie in the list
+	 * @return the row holding the movie
+	 */
+	public int getRowAt(int index) {
+		return rowAt(index);
+	}
+
+	/**
+	 * Finds the position of a row. Rows are kept in ascending order, so the
+	 * position is found by a binary search.
+	 *
+	 * @param row the row of a movie
+	 * @return the position of the row's movie, or -1 if the movie was removed or
+	 *         has not been loaded yet
+	 */
+	public int positionOfRow(int row) {
+		if (isRemoved(row)) {
+			return -1;
+		}
+		int position = this.order == null ? (row < this.size ? row : -1) : slotOfRow(row);
+		if (position > 0 && !this.tombstones.isEmpty()) {
+			// Skip the tombstones before the row's slot
+			int tombstones = this.tombstones.binarySearch(position);
+			position -= tombstones < 0 ? -tombstones - 1 : tombstones;
+		}
+		return position >= 0 && position < size() ? position : -1;
+	}
+
+	/**
+	 * @param row the row of a movie
+	 * @return true if the movie in the row was removed, else false
+	 */
+	public boolean isRemoved(int row) {
+		return row >>> 6 < this.removedRows.length && (this.removedRows[row >>> 6] & 1L << row) != 0;
+	}
+
+	/**
+	 * Returns the movie stored in a row. A row that is not decoded already is
+	 * decoded without being cached, so that reading many rows once does not
+	 * displace the cached movies.
+	 *
+	 * @param row the row of a movie
+	 * @return the movie stored in the row, or null if it was removed
+	 */
+	public Movie getMovieAtRow(int row) {
+		if (row < 0 || row >= getRowCount()) {
+			throw new IndexOutOfBoundsException("Row: " + row + ", Rows: " + getRowCount());
+		}
+		if (isRemoved(row)) {
+			return null;
+		}
+		Movie movie = this.decodedRows.get(row);
+		return movie != null ? movie : decode(row);
+	}
+
+	/**
+	 * Reads the movie stored in a row without using the cache of decoded
+	 * movies, so that several threads may read rows at once as long as the list
+	 * is not changed meanwhile.
+	 *
+	 * @param row the row of a movie
+	 * @return the movie stored in the row, or null if it was removed
+	 */
+	public Movie readMovieAtRow(int row) {
+		if (row < 0 || row >= getRowCount()) {
+			throw new IndexOutOfBoundsException("Row: " + row + ", Rows: " + getRowCount());
+		}
+		return isRemoved(row) ? null : decode(row);
+	}
+
+	/**
+	 * Reads the release year of the movie stored in a row, without decoding
+	 * the movie
+	 *
+	 * @param row the row of a movie, which may have been removed
+	 * @return the movie's release year
+	 */
+	public int getReleaseYearAt(int row) {
+		return row < this.snapshotRows ? this.snapshot.getReleaseYear(row)
+				: this.appendedRows.getReleaseYear(row - this.snapshotRows);
+	}
+
+	/**
+	 * Reads the title of the movie stored in a row, without decoding the movie
+	 *
+	 * @param row the row of a movie, which may have been removed
+	 * @return the movie's title
+	 */
+	public String getTitleAt(int row) {
+		return row < this.snapshotRows ? this.snapshot.getTitle(row)
+				: this.appendedRows.getTitle(row - this.snapshotRows);
+	}
+
+	/**
+	 * Reads the director of the movie stored in a row, without decoding the
+	 * movie
+	 *
+	 * @param row the row of a movie, which may have been removed
+	 * @return the movie's director
+	 */
+	public String getDirectorAt(int row) {
+		return row < this.snapshotRows ? this.snapshot.getDirector(row)
+				: this.appendedRows.getDirector(row - this.snapshotRows);
+	}
+
+	/**
+	 * Reads the genre of the movie stored in a row, without decoding the movie
+	 *
+	 * @param row the row of a movie, which may have been removed
+	 * @return the movie's genre
+	 */
+	public Genre getGenreAt(int row) {
+		return row < this.snapshotRows ? this.snapshot.getGenre(row)
+				: this.appendedRows.getGenre(row - this.snapshotRows);
+	}
+
+	/**
+	 * Reads the rating of the movie stored in a row, without decoding the movie
+	 *
+	 * @param row the row of a movie, which may have been removed
+	 * @return the movie's rating
+	 */
+	public Rating getRatingAt(int row) {
+		return row < this.snapshotRows ? this.snapshot.getRating(row)
+				: this.appendedRows.getRating(row - this.snapshotRows);
+	}
+
+	/**
+	 * Restricts the list to the movies that have been loaded so far. Once the
+	 * list is shared, this must be called under the write lock guarding it.
+	 *
+	 * @param loadedSize the number of loaded movies, or Integer.MAX_VALUE once
+	 *                   all movies are loaded
+	 */
+	public void setLoadedSize(int loadedSize) {
+		this.loadedSize = loadedSize;
+		this.modCount++;
+	}
+
+	/**
+	 * @return true if all movies of the list have been loaded, else false
+	 */
+	public boolean isLoaded() {
+		return this.loadedSize >= this.size;
+	}
+
+	/**
+	 * Appends a movie to the end of the list
+	 *
+	 * @param movie the movie to append
+	 * @return true, as the list always changes
+	 */
+	@Override
+	public boolean add(Movie movie) {
+		checkLoaded();
+		int row = this.snapshotRows + this.appendedRows.add(movie);
+		if (this.order != null) {
+			int slots = this.size + this.tombstones.size();
+			if (slots == this.order.length) {
+				this.order = Arrays.copyOf(this.order, Math.max(16, slots * 2));
+			}
+			this.order[slots] = row;
+		}
+		this.size++;
+		this.modCount++;
+		return true;
+	}
+
+	/**
+	 * Removes the movie at the position
+	 *
+	 * @param index the position of the movie to remove
+	 * @return the removed movie
+	 */
+	@Override
+	public Movie remove(int index) {
+		return removeRow(rowAt(index));
+	}
+
+	/**
+	 * Removes the movie stored in a row, leaving a tombstone in its slot of the
+	 * order of rows
+	 *
+	 * @param row the row of the movie to remove
+	 * @return the removed movie
+	 */
+	public Movie removeRow(int row) {
+		checkLoaded();
+		if (row < 0 || row >= getRowCount() || isRemoved(row)) {
+			throw new IllegalArgumentException("No movie is stored in row " + row);
+		}
+		Movie movie = getRow(row);
+
+		// Rows no longer follow their positions once a movie is removed
+		if (this.order == null) {
+			this.order = new int[Math.max(16, this.size)];
+			for (int i = 0; i < this.size; i++) {
+				this.order[i] = i;
+			}
+		}
+		int slot = slotOfRow(row);
+		this.tombstones.insert(-this.tombstones.binarySearch(slot) - 1, slot);
+		if (row >>> 6 >= this.removedRows.length) {
+			this.removedRows = Arrays.copyOf(this.removedRows, Math.max((getRowCount() + 63) >>> 6, 1));
+		}
+		this.removedRows[row >>> 6] |= 1L << row;
+		this.size--;
+		this.modCount++;
+		if (this.tombstones.size() > COMPACTION_THRESHOLD) {
+			compact();
+		}
+		this.decodedRows.remove(row);
+		return movie;
+	}
+
+	/**
+	 * Removes all movies from the list
+	 */
+	@Override
+	public void clear() {
+		checkLoaded();
+		this.decodedRows.clear();
+		this.removedRows = new long[(getRowCount() + 63) >>> 6];
+		for (int row = 0; row < getRowCount(); row++) {
+			this.removedRows[row >>> 6] |= 1L << row;
+		}
+		this.order = new int[16];
+		this.tombstones.clear();
+		this.size = 0;
+		this.modCount++;
+	}
+
+	/**
+	 * Prevents changes to the list while it is being loaded
+	 */
+	private void checkLoaded() {
+		if (!isLoaded()) {
+			throw new IllegalStateException("The movie list is still being loaded");
+		}
+	}
+
+	/**
+	 * @param index the position of a movie in the list
+	 * @return the row holding the movie
+	 */
+	private int rowAt(int index) {
+		if (index < 0 || index >= size()) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+		}
+		if (this.order == null) {
+			return index;
+		}
+		if (this.tombstones.isEmpty()) {
+			return this.order[index];
+		}
+
+		// Skip the tombstones up to the position's slot. The slot of the jth
+		// tombstone less j is the number of live movies before it.
+		int low = 0;
+		int high = this.tombstones.size();
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (this.tombstones.get(middle) - middle <= index) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return this.order[index + low];
+	}
+
+	/**
+	 * @param row a row that is held in the order of rows
+	 * @return the row's slot in the order of rows, or a negative value if it is
+	 *         not held
+	 */
+	private int slotOfRow(int row) {
+		return Arrays.binarySearch(this.order, 0, this.size + this.tombstones.size(), row);
+	}
+
+	/**
+	 * Drops the tombstones from the order of rows
+	 */
+	private void compact() {
+		compact(this.tombstones, this.size + this.tombstones.size());
+		this.tombstones.clear();
+	}
+
+	/**
+	 * Drops tombstones from the order of rows
+	 *
+	 * @param tombstones the ascending slots of the tombstones to drop
+	 * @param slots      the number of slots in use
+	 */
+	private void compact(IntList tombstones, int slots) {
+		int count = 0;
+		for (int slot = 0, tombstone = 0; slot < slots; slot++) {
+			if (tombstone < tombstones.size() && tombstones.get(tombstone) == slot) {
+				tombstone++;
+			} else {
+				this.order[count++] = this.order[slot];
+			}
+		}
+	}
+
+	/**
+	 * @param row the row of a movie
+	 * @return the movie stored in the row, decoding it if necessary
+	 */
+	private Movie getRow(int row) {
+		Movie movie = this.decodedRows.get(row);
+		if (movie == null) {
+			movie = decode(row);
+			this.decodedRows.put(row, movie);
+		}
+		return movie;
+	}
+
+	/**
+	 * @param row the row of a movie
+	 * @return a new movie holding the attributes stored in the row
+	 */
+	private Movie decode(int row) {
+		return row < this.snapshotRows ? this.snapshot.getMovie(row)
+				: this.appendedRows.getMovie(row - this.snapshotRows);
+	}
+}
@@ -0,0 +1,309 @@
+package moviecollection;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Columnar Binary Snapshot of a Movie Collection.
+ *
+ * A snapshot stores every distinct title, director and cast member once in a
+ * string table, followed by one packed column per movie attribute:
+ *
+ * <pre>
+ * int    magic ("MCSN"), version
+ * long   generation                      (since version 2)
+ * int    rowCount, stringCount, castCount, stringBytes
+ * int    stringOffsets[stringCount + 1]
+ * byte   strings[stringBytes]            (UTF-8)
+ * int    title[rowCount]                 (string table reference)
+ * int    director[rowCount]              (string table reference)
+ * int    castOffsets[rowCount + 1]       (offsets into castMembers)
+ * int    castMembers[castCount]          (string table references)
+ * int    releaseYear[rowCount]
+ * byte   genre[rowCount]                 (Genre ordinal)
+ * byte   rating[rowCount]                (Rating ordinal)
+ * </pre>
+ *
+ * A string reference of -1 denotes a missing (null) value. The generation
+ * identifies the first journal that is not folded into the snapshot.
+ *
+ * @author Olaf Wrieden
+ * @version 1.0
+ */
+public class MovieSnapshot {
+
+	// Format Attributes
+	public static final int MAGIC = 0x4D43534E;
+	public static final int VERSION = 2;
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * Prevents instantiation of this utility class
+	 */
+	private MovieSnapshot() {
+	}
+
+	/**
+	 * Checks if the file starts with the snapshot magic number
+	 *
+	 * @param file the data file to check
+	 * @return true if the file is a movie snapshot, else false
+	 * @throws IOException if the file could not be read
+	 */
+	public static boolean isSnapshot(File file) throws IOException {
+		try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+			return in.readInt() == MAGIC;
+		} catch (EOFException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Checks if the snapshot version can be read
+	 *
+	 * @param version the version of a snapshot
+	 * @return true if the version is supported, else false
+	 */
+	public static boolean isSupported(int version) {
+		return version >= 1 && version <= VERSION;
+	}
+
+	/**
+	 * @param version the version of a snapshot
+	 * @return the size of the snapshot's header in bytes
+	 */
+	public static int headerSize(int version) {
+		return version == 1 ? 6 * Integer.BYTES : 6 * Integer.BYTES + Long.BYTES;
+	}
+
+	/**
+	 * Writes the movies to the file as a snapshot of the first generation
+	 *
+	 * @param movies the movies to write
+	 * @param file   the data file to write to
+	 * @throws IOException if the snapshot could not be written
+	 */
+	public static void write(List<Movie> movies, File file) throws IOException {
+		write(movies, file, 0);
+	}
+
+	/**
+	 * Writes the movies to the file as a snapshot. The snapshot is written to a
+	 * temporary file first, which then replaces the target file.
+	 *
+	 * @param movies     the movies to write
+	 * @param file       the data file to write to
+	 * @param generation the first journal generation not held by the snapshot
+	 * @throws IOException if the snapshot could not be written
+	 */
+	public static void write(List<Movie> movies, File file, long generation) throws IOException {
+		// Gather the string table and columns in a single pass over the movies
+		int rowCount = movies.size();
+		HashMap<String, Integer> references = new HashMap<String, Integer>();
+		ArrayList<byte[]> strings = new ArrayList<byte[]>();
+		int[] titles = new int[rowCount];
+		int[] directors = new int[rowCount];
+		int[] castOffsets = new int[rowCount + 1];
+		IntList castMembers = new IntList(rowCount);
+		int[] releaseYears = new int[rowCount];
+		byte[] genres = new byte[rowCount];
+		byte[] ratings = new byte[rowCount];
+		int stringBytes = 0;
+		int row = 0;
+		for (Movie movie : movies) {
+			stringBytes += intern(movie.getTitle(), references, strings);
+			stringBytes += intern(movie.getDirector(), references, strings);
+			titles[row] = reference(movie.getTitle(), references);
+			directors[row] = reference(movie.getDirector(), references);
+			String[] castList = movie.getCastList();
+			if (castList != null) {
+				for (String member : castList) {
+					stringBytes += intern(member, references, strings);
+					castMembers.add(reference(member, references));
+				}
+			}
+			castOffsets[row + 1] = castMembers.size();
+			releaseYears[row] = movie.getReleaseYear();
+			genres[row] = (byte) movie.getGenre().ordinal();
+			ratings[row] = (byte) movie.getRating().ordinal();
+			row++;
+		}
+
+		File temp = new File(file.getPath() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(temp), BUFFER_SIZE))) {
+			// Header
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeLong(generation);
+			out.writeInt(rowCount);
+			out.writeInt(strings.size());
+			out.writeInt(castMembers.size());
+			out.writeInt(stringBytes);
+
+			// String Table
+			int offset = 0;
+			out.writeInt(offset);
+			for (byte[] string : strings) {
+				offset += string.length;
+				out.writeInt(offset);
+			}
+			for (byte[] string : strings) {
+				out.write(string);
+			}
+
+			// Columns
+			writeInts(out, titles);
+			writeInts(out, directors);
+			writeInts(out, castOffsets);
+			writeInts(out, castMembers.toArray());
+			writeInts(out, releaseYears);
+			out.write(genres);
+			out.write(ratings);
+		}
+		Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * Reads all movies of a snapshot file
+	 *
+	 * @param file the data file to read from
+	 * @return the movies of the snapshot, in their stored order
+	 * @throws IOException if the file is not a valid snapshot
+	 */
+	public static ArrayList<Movie> read(File file) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE))) {
+			// Header
+			if (in.readInt() != MAGIC) {
+				throw new IOException(file.getName() + " is not a movie collection snapshot");
+			}
+			int version = in.readInt();
+			if (!isSupported(version)) {
+				throw new IOException("Unsupported snapshot version " + version);
+			}
+			if (version > 1) {
+				in.readLong(); // Generation
+			}
+			int rowCount = in.readInt();
+			int stringCount = in.readInt();
+			int castCount = in.readInt();
+			int stringBytes = in.readInt();
+
+			// String Table
+			int[] stringOffsets = readInts(in, stringCount + 1);
+			byte[] data = new byte[stringBytes];
+			in.readFully(data);
+			String[] strings = new String[stringCount];
+			for (int i = 0; i < stringCount; i++) {
+				strings[i] = new String(data, stringOffsets[i], stringOffsets[i + 1] - stringOffsets[i],
+						StandardCharsets.UTF_8);
+			}
+
+			// Columns
+			int[] titles = readInts(in, rowCount);
+			int[] directors = readInts(in, rowCount);
+			int[] castOffsets = readInts(in, rowCount + 1);
+			int[] castMembers = readInts(in, castCount);
+			int[] releaseYears = readInts(in, rowCount);
+			byte[] genres = new byte[rowCount];
+			in.readFully(genres);
+			byte[] ratings = new byte[rowCount];
+			in.readFully(ratings);
+
+			// Assemble Movies
+			Genre[] genreValues = Genre.values();
+			Rating[] ratingValues = Rating.values();
+			ArrayList<Movie> movies = new ArrayList<Movie>(rowCount);
+			for (int i = 0; i < rowCount; i++) {
+				String[] castList = new String[castOffsets[i + 1] - castOffsets[i]];
+				for (int j = 0; j < castList.length; j++) {
+					castList[j] = string(strings, castMembers[castOffsets[i] + j]);
+				}
+				movies.add(new Movie(string(strings, titles[i]), string(strings, directors[i]),
+						genreValues[genres[i]], releaseYears[i], ratingValues[ratings[i]], castList));
+			}
+			return movies;
+		} catch (ArrayIndexOutOfBoundsException | NegativeArraySizeException e) {
+			throw new IOException(file.getName() + " is corrupt", e);
+		}
+	}
+
+	/**
+	 * Adds a string to the string table if it is not in there yet
+	 *
+	 * @param string     the string to add
+	 * @param references the string table's reference lookup
+	 * @param strings    the string table's encoded strings
+	 * @return the number of bytes added to the string table
+	 */
+	private static int intern(String string, HashMap<String, Integer> references, ArrayList<byte[]> strings) {
+		if (string == null || references.containsKey(string)) {
+			return 0;
+		}
+		byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		references.put(string, strings.size());
+		strings.add(bytes);
+		return bytes.length;
+	}
+
+	/**
+	 * @param string     the string to look up
+	 * @param references the string table's reference lookup
+	 * @return the string table reference of the string
+	 */
+	private static int reference(String string, HashMap<String, Integer> references) {
+		return string == null ? -1 : references.get(string);
+	}
+
+	/**
+	 * @param strings   the decoded string table
+	 * @param reference the string table reference
+	 * @return the referenced string, or null for a missing value
+	 */
+	private static String string(String[] strings, int reference) {
+		return reference == -1 ? null : strings[reference];
+	}
+
+	/**
+	 * Writes a packed column of integers
+	 *
+	 * @param out    the stream to write to
+	 * @param values the column's values
+	 * @throws IOException if the stream could not be written
+	 */
+	private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+		for (int value : values) {
+			out.writeInt(value);
+		}
+	}
+
+	/**
+	 * Reads a packed column of integers
+	 *
+	 * @param in    the stream to read from
+	 * @param count the number of integers to read
+	 * @return the column's values
+	 * @throws IOException if the stream ends prematurely
+	 */
+	private static int[] readInts(DataInputStream in, int count) throws IOException {
+		int[] values = new int[count];
+		for (int i = 0; i < count; i++) {
+			values[i] = in.readInt();
+		}
+		return values;
+	}
+}
@@ -0,0 +1,196 @@
+package moviecollection;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Base of the Column Stores of Movies.
+ *
+ * A store keeps the attributes of its movies by row rather than as movie
+ * objects: release years, genre and rating ordinals, and the
+ * {@link StringDictionary#NAMES} codes of directors and cast members. Titles
+ * are kept as bytes, in Latin-1 where they fit it and in UTF-16 otherwise, so
+ * they are copied rather than re-encoded when they are decoded. Movies are only
+ * allocated when they are requested.
+ *
+ * Rows are appended and never changed afterwards. A copy shares the storage of
+ * the store until it appends a movie itself; the store appends past the rows
+ * of its copies.
+ *
+ * @author Olaf Wrieden
+ * @version 1.0
+ * @see MappedMovieSnapshot
+ */
+public abstract class MovieStore {
+
+	// Flags of Missing Values
+	protected static final byte NO_TITLE = 1;
+	protected static final byte NO_CAST = 2;
+	protected static final byte WIDE_TITLE = 4;
+	protected static final byte NO_GENRE = -1;
+	protected static final byte NO_RATING = -1;
+
+	// Values of the Ordinals
+	private static final Genre[] GENRES = Genre.values();
+	private static final Rating[] RATINGS = Rating.values();
+
+	/**
+	 * @return the number of movies in the store
+	 */
+	public abstract int size();
+
+	/**
+	 * Appends a movie as a new row
+	 *
+	 * @param movie the movie to append
+	 * @return the row of the movie
+	 */
+	public abstract int add(Movie movie);
+
+	/**
+	 * Copies the store. The copy shares the storage of this store, so copying
+	 * takes little time, and the rows held by both are never changed.
+	 *
+	 * @return a copy of the store
+	 */
+	public abstract MovieStore copy();
+
+	/**
+	 * Allocates a new movie holding the row's attributes
+	 *
+	 * @param row the row of the movie
+	 * @return the movie at the row
+	 */
+	public Movie getMovie(int row) {
+		return new Movie(getTitle(row), getDirectorCode(row), getGenre(row), getReleaseYear(row), getRating(row),
+				getCastCodes(row));
+	}
+
+	/**
+	 * @param row the row of the movie
+	 * @return the movie's title
+	 */
+	public abstract String getTitle(int row);
+
+	/**
+	 * @param row the row of the movie
+	 * @return the movie's director
+	 */
+	public String getDirector(int row) {
+		return StringDictionary.NAMES.decode(getDirectorCode(row));
+	}
+
+	/**
+	 * @param row the row of the movie
+	 * @return the movie's genre
+	 */
+	public abstract Genre getGenre(int row);
+
+	/**
+	 * @param row the row of the movie
+	 * @return the movie's release year
+	 */
+	public abstract int getReleaseYear(int row);
+
+	/**
+	 * @param row the row of the movie
+	 * @return the movie's rating
+	 */
+	public abstract Rating getRating(int row);
+
+	/**
+	 * @param row the row of the movie
+	 * @return the movie's cast list
+	 */
+	public String[] getCastList(int row) {
+		int[] castCodes = getCastCodes(row);
+		if (castCodes == null) {
+			return null;
+		}
+		String[] castList = new String[castCodes.length];
+		for (int i = 0; i < castList.length; i++) {
+			castList[i] = StringDictionary.NAMES.decode(castCodes[i]);
+		}
+		return castList;
+	}
+
+	/**
+	 * @param row the row of the movie
+	 * @return the dictionary code of the movie's director
+	 */
+	protected abstract int getDirectorCode(int row);
+
+	/**
+	 * @param row the row of the movie
+	 * @return new array of the dictionary codes of the movie's cast members, or
+	 *         null if the movie has no cast list
+	 */
+	protected abstract int[] getCastCodes(int row);
+
+	/**
+	 * @param title a title
+	 * @return the flag telling how the title is stored
+	 */
+	protected static byte titleFlag(String title) {
+		if (title == null) {
+			return NO_TITLE;
+		}
+		for (int i = 0; i < title.length(); i++) {
+			if (title.charAt(i) > 0xFF) {
+				return WIDE_TITLE;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * @param flag the flag telling how a title is stored
+	 * @return the charset the title is stored in
+	 */
+	protected static Charset titleCharset(byte flag) {
+		return (flag & WIDE_TITLE) != 0 ? StandardCharsets.UTF_16BE : StandardCharsets.ISO_8859_1;
+	}
+
+	/**
+	 * @param ordinal a stored genre ordinal
+	 * @return the genre, or null for a missing genre
+	 */
+	protected static Genre toGenre(byte ordinal) {
+		return ordinal == NO_GENRE ? null : GENRES[ordinal];
+	}
+
+	/**
+	 * @param ordinal a stored rating ordinal
+	 * @return the rating, or null for a missing rating
+	 */
+	protected static Rating toRating(byte ordinal) {
+		return ordinal == NO_RATING ? null : RATINGS[ordinal];
+	}
+
+	/**
+	 * @param genre a genre
+	 * @return the ordinal to store for the genre
+	 */
+	protected static byte ordinalOf(Genre genre) {
+		return genre == null ? NO_GENRE : (byte) genre.ordinal();
+	}
+
+	/**
+	 * @param rating a rating
+	 * @return the ordinal to store for the rating
+	 */
+	protected static byte ordinalOf(Rating rating) {
+		return rating == null ? NO_RATING : (byte) rating.ordinal();
+	}
+
+	/**
+	 * @param row the row to check
+	 * @return the row, if it exists in the store
+	 */
+	protected int checkRow(int row) {
+		if (row < 0 || row >= size()) {
+			throw new IndexOutOfBoundsException("Row: " + row + ", Size: " + size());
+		}
+		return row;
+	}
+}
@@ -0,0 +1,110 @@
+package moviecollection;
+
+import java.util.Collections;
+import java.util.List;
+
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Table Model presenting a List of Movies.
+ *
+ * The model reads the movies' attributes only when the table asks for a cell,
+ * so rows that are never shown are never decoded.
+ *
+ * @author Olaf Wrieden
+ * @version 1.0
+ */
+public class MovieTableModel extends AbstractTableModel {
+
+	// Table Columns
+	private static final String[] COLUMN_NAMES = { "Title", "Director", "Genre", "Year", "Rating", "Cast" };
+	private static final Class<?>[] COLUMN_CLASSES = { String.class, String.class, Genre.class, Integer.class,
+			Rating.class, String.class };
+
+	// Model Attributes
+	private List<Movie> movies = Collections.emptyList();
+
+	/**
+	 * Sets the movies shown in the table
+	 *
+	 * @param movies the movies to show
+	 */
+	public void setMovies(List<Movie> movies) {
+		this.movies = movies;
+		fireTableDataChanged();
+	}
+
+	/**
+	 * @return the movies shown in the table
+	 */
+	public List<Movie> getMovies() {
+		return movies;
+	}
+
+	/**
+	 * @param row the row of the table
+	 * @return the movie shown in the row
+	 */
+	public Movie getMovieAt(int row) {
+		return this.movies.get(row);
+	}
+
+	/**
+	 * @param row the row of the table
+	 * @return the id of the movie shown in the row, or -1 if the shown movies
+	 *         are not part of a collection
+	 */
+	public int getIdAt(int row) {
+		if (this.movies instanceof MovieList) {
+			return ((MovieList) this.movies).getRowAt(row);
+		}
+		if (this.movies instanceof SearchResult) {
+			return ((SearchResult) this.movies).getRowAt(row);
+		}
+		return -1;
+	}
+
+	@Override
+	public int getRowCount() {
+		return this.movies.size();
+	}
+
+	@Override
+	public int getColumnCount() {
+		return COLUMN_NAMES.length;
+	}
+
+	@Override
+	public String getColumnName(int column) {
+		return COLUMN_NAMES[column];
+	}
+
+	@Override
+	public Class<?> getColumnClass(int column) {
+		return COLUMN_CLASSES[column];
+	}
+
+	@Override
+	public boolean isCellEditable(int row, int column) {
+		return false;
+	}
+
+	@Override
+	public Object getValueAt(int row, int column) {
+		Movie movie = this.movies.get(row);
+		switch (column) {
+		case 0:
+			return movie.getTitle();
+		case 1:
+			return movie.getDirector();
+		case 2:
+			return movie.getGenre();
+		case 3:
+			return movie.getReleaseYear();
+		case 4:
+			return movie.getRating();
+		default:
+			return movie.getStringCastList();
+		}
+	}
+}
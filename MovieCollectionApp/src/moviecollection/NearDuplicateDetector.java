@@ -0,0 +1,482 @@
+package moviecollection;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Batch Job Finding Clusters of Movies that are Probably the Same Film.
+ *
+ * Every movie is described by a set of features: the three-character
+ * shingles of the words of its title, the name of its director and the name
+ * of each cast member. Articles are dropped from titles and a lone "s" is
+ * joined to the word before it, so "The King's Speech" and "Kings Speech,
+ * The" share all their title features. The similarity of two movies is the
+ * Jaccard similarity of their features.
+ *
+ * Rather than comparing all pairs, each movie gets a MinHash signature of
+ * {@value #HASHES} hashes, which agree between two movies about as often as
+ * their features overlap. The signatures are cut into {@value #BANDS} bands;
+ * movies sharing all hashes of any band land in the same bucket and become
+ * candidates. Candidates whose signatures agree on at least the threshold
+ * share of hashes are linked, and linked movies form a cluster. A pair of
+ * movies with a similarity of 0.5 is found with a probability of about 93%,
+ * one of 0.7 almost always. Signatures and bands are computed on all cores,
+ * and the job runs in time roughly linear in the number of movies.
+ *
+ * Run with {@code java moviecollection.NearDuplicateDetector <data file>
+ * [threshold]} to list the clusters of a data file.
+ *
+ * @author Olaf Wrieden
+ * @version 1.0
+ */
+public class NearDuplicateDetector {
+
+	// Detector Settings
+	public static final double DEFAULT_THRESHOLD = 0.5;
+	private static final int BANDS = 20;
+	private static final int ROWS = 3;
+	private static final int HASHES = BANDS * ROWS;
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	// Signatures are kept in pages of this many movies, so no array outgrows
+	// the largest array size however many movies are searched
+	private static final int PAGE_BITS = 14;
+	private static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+	// Buckets larger than this are linked in a chain instead of pairwise
+	private static final int MAX_BUCKET = 64;
+
+	// Feature Kinds
+	private static final long TITLE = 1L << 48;
+	private static final long DIRECTOR = 2L << 48;
+	private static final long CAST = 3L << 48;
+
+	// Seeds of the hash functions
+	private static final long[] SEEDS = new long[HASHES];
+
+	static {
+		long seed = 0x2545F4914F6CDD1DL;
+		for (int i = 0; i < HASHES; i++) {
+			seed = mix(seed + 0x9E3779B97F4A7C15L);
+			SEEDS[i] = seed;
+		}
+	}
+
+	// Detector Attributes
+	private final double threshold;
+	private final int threads;
+
+	/**
+	 * Constructs a Near Duplicate Detector using all cores and the default
+	 * threshold
+	 */
+	public NearDuplicateDetector() {
+		this(DEFAULT_THRESHOLD, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructs a Near Duplicate Detector
+	 *
+	 * @param threshold the least estimated similarity, from 0 to 1, of two
+	 *                  movies to link into a cluster
+	 * @param threads   the number of threads computing signatures and bands
+	 */
+	public NearDuplicateDetector(double threshold, int threads) {
+		if (threshold < 0 || threshold > 1) {
+			throw new IllegalArgumentException("Threshold must be between 0 and 1: " + threshold);
+		}
+		if (threads < 1) {
+			throw new IllegalArgumentException("Threads must be at least 1: " + threads);
+		}
+		this.threshold = threshold;
+		this.threads = threads;
+	}
+
+	/**
+	 * Finds the clusters of near-duplicate movies
+	 *
+	 * @param movies the movies to search, which must not change meanwhile
+	 * @return the clusters of at least two movies, the most similar first
+	 */
+	public List<Cluster> detect(List<Movie> movies) {
+		int size = movies.size();
+		ForkJoinPool pool = new ForkJoinPool(this.threads);
+		try {
+			// Compute the signatures of chunks of movies in parallel
+			char[][] signatures = newSignatures(size);
+			int chunkSize = Math.max(1, size / (this.threads * CHUNKS_PER_THREAD) + 1);
+			ArrayList<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>();
+			for (int from = 0; from < size; from += chunkSize) {
+				int start = from;
+				int end = Math.min(size, from + chunkSize);
+				tasks.add(pool.submit(() -> {
+					for (int i = start; i < end; i++) {
+						sign(read(movies, i), signatures, i);
+					}
+				}));
+			}
+			for (ForkJoinTask<?> task : tasks) {
+				task.join();
+			}
+
+			// Bucket the movies of each band in parallel, linking similar candidates
+			ArrayList<ForkJoinTask<long[]>> bands = new ArrayList<ForkJoinTask<long[]>>();
+			for (int band = 0; band < BANDS; band++) {
+				int first = band * ROWS;
+				bands.add(pool.submit(() -> link(signatures, size, first)));
+			}
+			Clusters clusters = new Clusters(size);
+			for (ForkJoinTask<long[]> band : bands) {
+				for (long link : band.join()) {
+					int a = (int) (link >>> 32);
+					int b = (int) link;
+					clusters.union(a, b, similarity(signatures, a, b));
+				}
+			}
+			return clusters.toList();
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Estimates the similarity of two movies
+	 *
+	 * @param a the first movie
+	 * @param b the second movie
+	 * @return the share of equal hashes of the movies' signatures
+	 */
+	public static double similarity(Movie a, Movie b) {
+		char[][] signatures = newSignatures(2);
+		sign(a, signatures, 0);
+		sign(b, signatures, 1);
+		return similarity(signatures, 0, 1);
+	}
+
+	/**
+	 * Lists the clusters of near-duplicate movies in a data file
+	 *
+	 * @param args the data file, and optionally the threshold
+	 * @throws IOException if the data file could not be read
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length == 0) {
+			System.out.println("Usage: java moviecollection.NearDuplicateDetector <data file> [threshold]");
+			return;
+		}
+		List<Movie> movies = MovieSnapshot.read(new File(args[0]));
+		double threshold = args.length > 1 ? Double.parseDouble(args[1]) : DEFAULT_THRESHOLD;
+		long start = System.nanoTime();
+		List<Cluster> clusters = new NearDuplicateDetector(threshold, Runtime.getRuntime().availableProcessors())
+				.detect(movies);
+		System.out.printf("Found %,d clusters among %,d movies in %.1f s%n", clusters.size(), movies.size(),
+				(System.nanoTime() - start) / 1e9);
+		for (Cluster cluster : clusters) {
+			System.out.printf("%.2f similar:%n", cluster.getSimilarity());
+			for (int index : cluster.getMovies()) {
+				System.out.println("    " + movies.get(index));
+			}
+		}
+	}
+
+	/**
+	 * Finds the similar candidates of a band
+	 *
+	 * @param signatures the signatures of all movies
+	 * @param size       the number of movies
+	 * @param first      the first hash of the band
+	 * @return the pairs of similar movies, each packed into a long
+	 */
+	private long[] link(char[][] signatures, int size, int first) {
+		long[] buckets = new long[size];
+		for (int i = 0; i < size; i++) {
+			char[] page = signatures[i >>> PAGE_BITS];
+			int offset = (i & PAGE_SIZE - 1) * HASHES;
+			long band = 0;
+			for (int j = first; j < first + ROWS; j++) {
+				band = band << 16 | page[offset + j];
+			}
+			buckets[i] = mix(band) & 0xFFFFFFFF00000000L | i;
+		}
+		Arrays.sort(buckets);
+
+		// Compare the movies of each bucket, which are adjacent after sorting
+		IntList links = new IntList();
+		int start = 0;
+		while (start < size) {
+			int end = start + 1;
+			while (end < size && buckets[end] >>> 32 == buckets[start] >>> 32) {
+				end++;
+			}
+			for (int i = start + 1; i < end; i++) {
+				int b = (int) buckets[i];
+				for (int j = end - start > MAX_BUCKET ? i - 1 : start; j < i; j++) {
+					int a = (int) buckets[j];
+					if (similarity(signatures, a, b) >= this.threshold) {
+						links.add(a);
+						links.add(b);
+					}
+				}
+			}
+			start = end;
+		}
+		long[] pairs = new long[links.size() / 2];
+		for (int i = 0; i < pairs.length; i++) {
+			pairs[i] = (long) links.get(2 * i) << 32 | links.get(2 * i + 1);
+		}
+		return pairs;
+	}
+
+	/**
+	 * @param signatures the signatures of all movies
+	 * @param a          the index of the first movie
+	 * @param b          the index of the second movie
+	 * @return the share of equal hashes of the movies' signatures
+	 */
+	private static double similarity(char[][] signatures, int a, int b) {
+		char[] pageA = signatures[a >>> PAGE_BITS];
+		char[] pageB = signatures[b >>> PAGE_BITS];
+		int offsetA = (a & PAGE_SIZE - 1) * HASHES;
+		int offsetB = (b & PAGE_SIZE - 1) * HASHES;
+		int equal = 0;
+		for (int i = 0; i < HASHES; i++) {
+			if (pageA[offsetA + i] == pageB[offsetB + i]) {
+				equal++;
+			}
+		}
+		return (double) equal / HASHES;
+	}
+
+	/**
+	 * Computes a movie's signature: the least hash of its features under each
+	 * hash function. Only the upper 16 bits of each hash are kept, which still
+	 * makes hashes of different features agree very rarely.
+	 *
+	 * @param movie      the movie to sign
+	 * @param signatures receives the signature
+	 * @param index      the index of the movie
+	 */
+	private static void sign(Movie movie, char[][] signatures, int index) {
+		long[] minimums = new long[HASHES];
+		Arrays.fill(minimums, Long.MAX_VALUE);
+		for (long feature : features(movie)) {
+			long hash = mix(feature);
+			for (int i = 0; i < HASHES; i++) {
+				minimums[i] = Math.min(minimums[i], mix(hash ^ SEEDS[i]) >>> 1);
+			}
+		}
+		char[] page = signatures[index >>> PAGE_BITS];
+		int offset = (index & PAGE_SIZE - 1) * HASHES;
+		for (int i = 0; i < HASHES; i++) {
+			page[offset + i] = (char) (minimums[i] >>> 47);
+		}
+	}
+
+	/**
+	 * @param size the number of movies
+	 * @return empty pages holding the signatures of the movies
+	 */
+	private static char[][] newSignatures(int size) {
+		char[][] signatures = new char[(int) (((long) size + PAGE_SIZE - 1) >>> PAGE_BITS)][];
+		for (int i = 0; i < signatures.length; i++) {
+			signatures[i] = new char[Math.min(PAGE_SIZE, size - (i << PAGE_BITS)) * HASHES];
+		}
+		return signatures;
+	}
+
+	/**
+	 * @param movie the movie to describe
+	 * @return the features of the movie, possibly repeated
+	 */
+	private static long[] features(Movie movie) {
+		// Shingles of the title's words, marked at the start and end of a word
+		ArrayList<String> words = new ArrayList<String>();
+		for (String token : TokenIndex.tokenize(movie.getTitle())) {
+			if (token.equals("s") && !words.isEmpty()) {
+				words.set(words.size() - 1, words.get(words.size() - 1) + token);
+			} else if (!token.equals("the") && !token.equals("a") && !token.equals("an")) {
+				words.add(token);
+			}
+		}
+		String[] castList = movie.getCastList();
+		int count = 1 + (castList == null ? 0 : castList.length);
+		for (String word : words) {
+			count += word.length();
+		}
+		long[] features = new long[count];
+		count = 0;
+		for (String word : words) {
+			String marked = "^" + word + "$";
+			for (int i = 0; i + 3 <= marked.length(); i++) {
+				features[count++] = TITLE | (long) marked.charAt(i) << 32 | (long) marked.charAt(i + 1) << 16
+						| marked.charAt(i + 2);
+			}
+		}
+
+		// Whole names of the director and the cast members
+		features[count++] = DIRECTOR | name(movie.getDirector());
+		if (castList != null) {
+			for (String member : castList) {
+				features[count++] = CAST | name(member);
+			}
+		}
+		return features;
+	}
+
+	/**
+	 * @param name a person's name
+	 * @return a hash of the name's words, ignoring case, accents and punctuation
+	 */
+	private static long name(String name) {
+		return String.join(" ", TokenIndex.tokenize(name)).hashCode() & 0xFFFFFFFFL;
+	}
+
+	/**
+	 * Reads a movie, bypassing the cache of a movie list so that several
+	 * threads may read at once
+	 *
+	 * @param movies the movies
+	 * @param index  the position of the movie
+	 * @return the movie at the position
+	 */
+	private static Movie read(List<Movie> movies, int index) {
+		if (movies instanceof MovieList) {
+			MovieList list = (MovieList) movies;
+			return list.readMovieAtRow(list.getRowAt(index));
+		}
+		return movies.get(index);
+	}
+
+	/**
+	 * Scrambles the bits of a value (the finalizer of MurmurHash3)
+	 *
+	 * @param value the value to scramble
+	 * @return the scrambled value
+	 */
+	private static long mix(long value) {
+		value ^= value >>> 33;
+		value *= 0xFF51AFD7ED558CCDL;
+		value ^= value >>> 33;
+		value *= 0xC4CEB9FE1A85EC53L;
+		return value ^ value >>> 33;
+	}
+
+	/**
+	 * Cluster of Movies that are Probably the Same Film.
+	 */
+	public static class Cluster {
+
+		// Cluster Attributes
+		private final int[] movies;
+		private final double similarity;
+
+		/**
+		 * Constructs a Cluster
+		 *
+		 * @param movies     the positions of the movies, in ascending order
+		 * @param similarity the least estimated similarity of the linked pairs
+		 */
+		public Cluster(int[] movies, double similarity) {
+			this.movies = movies;
+			this.similarity = similarity;
+		}
+
+		/**
+		 * @return the positions of the cluster's movies in the searched list, in
+		 *         ascending order
+		 */
+		public int[] getMovies() {
+			return movies.clone();
+		}
+
+		/**
+		 * @return the number of movies in the cluster
+		 */
+		public int size() {
+			return movies.length;
+		}
+
+		/**
+		 * @return the least estimated similarity of the pairs of movies that
+		 *         linked the cluster
+		 */
+		public double getSimilarity() {
+			return similarity;
+		}
+
+		/**
+		 * @return a string representation of the cluster
+		 */
+		@Override
+		public String toString() {
+			return String.format("%d movies, %.2f similar: %s", this.movies.length, this.similarity,
+					Arrays.toString(this.movies));
+		}
+	}
+
+	/**
+	 * Disjoint Sets of Linked Movies.
+	 */
+	private static class Clusters {
+
+		private final int[] parents;
+		private final double[] similarities;
+
+		private Clusters(int size) {
+			this.parents = new int[size];
+			this.similarities = new double[size];
+			for (int i = 0; i < size; i++) {
+				this.parents[i] = i;
+				this.similarities[i] = 1;
+			}
+		}
+
+		private int find(int movie) {
+			while (this.parents[movie] != movie) {
+				this.parents[movie] = this.parents[this.parents[movie]];
+				movie = this.parents[movie];
+			}
+			return movie;
+		}
+
+		private void union(int a, int b, double similarity) {
+			int rootA = find(a);
+			int rootB = find(b);
+			int root = Math.min(rootA, rootB);
+			this.parents[rootA] = root;
+			this.parents[rootB] = root;
+			this.similarities[root] = Math.min(similarity,
+					Math.min(this.similarities[rootA], this.similarities[rootB]));
+		}
+
+		private List<Cluster> toList() {
+			// Collect the members of each cluster in ascending order
+			int[] sizes = new int[this.parents.length];
+			for (int i = 0; i < this.parents.length; i++) {
+				sizes[find(i)]++;
+			}
+			int[][] members = new int[this.parents.length][];
+			int[] filled = new int[this.parents.length];
+			ArrayList<Cluster> clusters = new ArrayList<Cluster>();
+			for (int i = 0; i < this.parents.length; i++) {
+				int root = find(i);
+				if (sizes[root] < 2) {
+					continue;
+				}
+				if (members[root] == null) {
+					members[root] = new int[sizes[root]];
+					clusters.add(new Cluster(members[root], this.similarities[root]));
+				}
+				members[root][filled[root]++] = i;
+			}
+			Collections.sort(clusters, (a, b) -> Double.compare(b.getSimilarity(), a.getSimilarity()));
+			return clusters;
+		}
+	}
+}
@@ -0,0 +1,634 @@
+package moviecollection;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Composable Query over the Attributes of Movies.
+ *
+ * Queries are built from predicates on single attributes, joined with
+ * {@link #and(Query...)}, {@link #or(Query...)} and {@link #not(Query)}, and
+ * run as a single plan by {@link SearchEngine#search(Query)}.
+ *
+ * Every predicate is answered by one of the collection's indexes and can
+ * estimate how many movies it matches. A conjunction is planned by cost: its
+ * predicates are ordered from the most to the least selective, the first is
+ * answered by its index, and each following one is either intersected in from
+ * its own index or, once few candidates remain, checked against the
+ * candidates directly. No intermediate collections are built.
+ *
+ * @author Olaf Wrieden
+ * @version 1.0
+ */
+public abstract class Query {
+
+	// Checking a candidate costs about as much as reading this many index entries
+	private static final int CHECK_COST = 16;
+
+	/**
+	 * @param movie the movie to check
+	 * @return true if the movie matches the query, else false
+	 */
+	public abstract boolean matches(Movie movie);
+
+	/**
+	 * Checks the movie stored in a row. Queries on single attributes override
+	 * this to read them without decoding the movie.
+	 *
+	 * @param movies the movies holding the row
+	 * @param row    the row of a movie that was not removed
+	 * @return true if the movie matches the query, else false
+	 */
+	protected boolean matches(MovieList movies, int row) {
+		return matches(movies.getMovieAtRow(row));
+	}
+
+	/**
+	 * @param collection the collection to query
+	 * @return the estimated number of movies in the collection matching the query
+	 */
+	protected abstract long estimate(MovieCollection collection);
+
+	/**
+	 * Evaluates the query with the collection's indexes
+	 *
+	 * @param collection the collection to query
+	 * @return the rows of the matching movies, possibly including rows of movies
+	 *         that are not visible in the collection
+	 */
+	protected abstract IdBitmap evaluate(MovieCollection collection);
+
+	/**
+	 * Describes the query in a normal form, which is shared by queries matching
+	 * the same movies in the same way
+	 *
+	 * @return the normalized query
+	 */
+	protected String key() {
+		return toString();
+	}
+
+	/**
+	 * @param text the text the title must contain, ignoring case
+	 * @return a query matching movies by title
+	 */
+	public static Query title(String text) {
+		return contains(SearchField.TITLE, text);
+	}
+
+	/**
+	 * @param text the text the director's name must contain, ignoring case
+	 * @return a query matching movies by director
+	 */
+	public static Query director(String text) {
+		return contains(SearchField.DIRECTOR, text);
+	}
+
+	/**
+	 * @param text the text the cast list must contain, ignoring case
+	 * @return a query matching movies by cast member
+	 */
+	public static Query cast(String text) {
+		return contains(SearchField.CAST, text);
+	}
+
+	/**
+	 * @param field the field to search
+	 * @param text  the text the field must contain, ignoring case
+	 * @return a query matching movies by the text of a field
+	 */
+	public static Query contains(SearchField field, String text) {
+		return new Contains(field, text);
+	}
+
+	/**
+	 * @param field the field to search
+	 * @param words the words the field must hold the beginnings of
+	 * @return a query matching movies by the words of a field
+	 */
+	public static Query words(SearchField field, String words) {
+		return new Words(field, words);
+	}
+
+	/**
+	 * @param field       the field to search
+	 * @param words       the words the field must hold, each within a few edits
+	 * @param maxDistance the greatest number of edits to allow per word, or -1
+	 *                    to allow more edits in longer words
+	 * @return a query matching movies by the misspelt words of a field
+	 */
+	public static Query fuzzy(SearchField field, String words, int maxDistance) {
+		return new Fuzzy(field, words, maxDistance);
+	}
+
+	/**
+	 * @param genre the genre to match
+	 * @return a query matching movies by genre
+	 */
+	public static Query genre(Genre genre) {
+		return new Attributes(genre, Rating.ONE, Rating.FIVE);
+	}
+
+	/**
+	 * @param lowest  the lowest rating to match (inclusive)
+	 * @param highest the highest rating to match (inclusive)
+	 * @return a query matching movies by rating
+	 */
+	public static Query rating(Rating lowest, Rating highest) {
+		return new Attributes(null, lowest, highest);
+	}
+
+	/**
+	 * @param startYear the first release year to match (inclusive)
+	 * @param endYear   the last release year to match (inclusive)
+	 * @return a query matching movies by release year
+	 */
+	public static Query released(int startYear, int endYear) {
+		return new Released(startYear, endYear);
+	}
+
+	/**
+	 * @param queries the queries that must all match
+	 * @return a query matching the movies matched by every query
+	 */
+	public static Query and(Query... queries) {
+		return new And(queries);
+	}
+
+	/**
+	 * @param queries the queries of which one must match
+	 * @return a query matching the movies matched by any query
+	 */
+	public static Query or(Query... queries) {
+		return new Or(queries);
+	}
+
+	/**
+	 * @param query the query that must not match
+	 * @return a query matching the movies not matched by the query
+	 */
+	public static Query not(Query query) {
+		return new Not(query);
+	}
+
+	/**
+	 * Collects the rows of all movies visible in the collection
+	 *
+	 * @param collection the collection to read
+	 * @return a bitmap of the rows
+	 */
+	private static IdBitmap allRows(MovieCollection collection) {
+		MovieList movies = (MovieList) collection.getMovieCollection();
+		IdBitmap rows = new IdBitmap();
+		for (int i = 0; i < movies.size(); i++) {
+			rows.add(movies.getRowAt(i));
+		}
+		return rows;
+	}
+
+	/**
+	 * Case-Insensitive Substring Predicate on a Text Field.
+	 */
+	private static class Contains extends Query {
+
+		private final SearchField field;
+		private final String text;
+
+		private Contains(SearchField field, String text) {
+			this.field = field;
+			this.text = text;
+		}
+
+		@Override
+		public boolean matches(Movie movie) {
+			String value = this.field.getText(movie);
+			return value != null && value.toLowerCase().contains(this.text.toLowerCase());
+		}
+
+		@Override
+		protected long estimate(MovieCollection collection) {
+			return collection.getTrigramIndex().estimate(this.field, this.text);
+		}
+
+		@Override
+		protected IdBitmap evaluate(MovieCollection collection) {
+			return new IdBitmap(collection.getTrigramIndex().search(this.field, this.text));
+		}
+
+		@Override
+		protected String key() {
+			// The length keeps quotes in the text from being read as the key's own
+			String text = this.text.toLowerCase();
+			return this.field + " contains " + text.length() + "\"" + text + "\"";
+		}
+
+		@Override
+		public String toString() {
+			return this.field + " contains \"" + this.text + "\"";
+		}
+	}
+
+	/**
+	 * Word Prefix Predicate on a Text Field.
+	 */
+	private static class Words extends Query {
+
+		private final SearchField field;
+		private final String[] tokens;
+		private final String words;
+
+		private Words(SearchField field, String words) {
+			this.field = field;
+			this.words = words;
+			this.tokens = TokenIndex.tokenize(words);
+		}
+
+		@Override
+		public boolean matches(Movie movie) {
+			String[] movieTokens = TokenIndex.tokenize(this.field.getText(movie));
+			for (String token : this.tokens) {
+				boolean found = false;
+				for (String movieToken : movieTokens) {
+					found |= movieToken.startsWith(token);
+				}
+				if (!found) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		protected long estimate(MovieCollection collection) {
+			return collection.getTokenIndex().estimate(this.field, this.words);
+		}
+
+		@Override
+		protected IdBitmap evaluate(MovieCollection collection) {
+			return new IdBitmap(collection.getTokenIndex().search(this.field, this.words));
+		}
+
+		@Override
+		protected String key() {
+			return this.field + " has words \"" + String.join(" ", this.tokens) + "\"";
+		}
+
+		@Override
+		public String toString() {
+			return this.field + " has words \"" + this.words + "\"";
+		}
+	}
+
+	/**
+	 * Approximate Word Predicate on a Text Field.
+	 */
+	private static class Fuzzy extends Query {
+
+		private final SearchField field;
+		private final String[] tokens;
+		private final String words;
+		private final int maxDistance;
+
+		private Fuzzy(SearchField field, String words, int maxDistance) {
+			this.field = field;
+			this.words = words;
+			this.tokens = TokenIndex.tokenize(words);
+			this.maxDistance = maxDistance;
+		}
+
+		@Override
+		public boolean matches(Movie movie) {
+			String[] movieTokens = TokenIndex.tokenize(this.field.getText(movie));
+			for (String token : this.tokens) {
+				int edits = this.maxDistance < 0 ? TokenIndex.maxEdits(token) : this.maxDistance;
+				boolean found = false;
+				for (String movieToken : movieTokens) {
+					found |= BKTree.distance(token, movieToken, edits) <= edits;
+				}
+				if (!found) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		protected long estimate(MovieCollection collection) {
+			return collection.getTokenIndex().estimateFuzzy(this.field, this.words, this.maxDistance);
+		}
+
+		@Override
+		protected IdBitmap evaluate(MovieCollection collection) {
+			return new IdBitmap(collection.getTokenIndex().searchFuzzy(this.field, this.words, this.maxDistance));
+		}
+
+		@Override
+		protected String key() {
+			return this.field + " is like \"" + String.join(" ", this.tokens) + "\" within " + this.maxDistance;
+		}
+
+		@Override
+		public String toString() {
+			return this.field + " is like \"" + this.words + "\""
+					+ (this.maxDistance < 0 ? "" : " within " + this.maxDistance + " edits");
+		}
+	}
+
+	/**
+	 * Genre and Rating Range Predicate.
+	 */
+	private static class Attributes extends Query {
+
+		private final Genre genre;
+		private final Rating lowest;
+		private final Rating highest;
+
+		private Attributes(Genre genre, Rating lowest, Rating highest) {
+			this.genre = genre;
+			this.lowest = lowest;
+			this.highest = highest;
+		}
+
+		@Override
+		public boolean matches(Movie movie) {
+			return (this.genre == null || movie.getGenre() == this.genre)
+					&& movie.getRating().compareTo(this.lowest) >= 0 && movie.getRating().compareTo(this.highest) <= 0;
+		}
+
+		@Override
+		protected boolean matches(MovieList movies, int row) {
+			Rating rating = movies.getRatingAt(row);
+			return (this.genre == null || movies.getGenreAt(row) == this.genre) && rating.compareTo(this.lowest) >= 0
+					&& rating.compareTo(this.highest) <= 0;
+		}
+
+		@Override
+		protected long estimate(MovieCollection collection) {
+			if (this.lowest.compareTo(this.highest) > 0) {
+				return 0;
+			}
+			return collection.getAttributeIndex().estimate(this.genre, this.lowest, this.highest);
+		}
+
+		@Override
+		protected IdBitmap evaluate(MovieCollection collection) {
+			if (this.lowest.compareTo(this.highest) > 0) {
+				return new IdBitmap();
+			}
+			return collection.getAttributeIndex().select(this.genre, this.lowest, this.highest);
+		}
+
+		@Override
+		public String toString() {
+			return (this.genre == null ? "" : "genre " + this.genre + " and ") + "rating " + this.lowest + "-"
+					+ this.highest;
+		}
+	}
+
+	/**
+	 * Release Year Range Predicate.
+	 */
+	private static class Released extends Query {
+
+		private final int startYear;
+		private final int endYear;
+
+		private Released(int startYear, int endYear) {
+			this.startYear = startYear;
+			this.endYear = endYear;
+		}
+
+		@Override
+		public boolean matches(Movie movie) {
+			return movie.getReleaseYear() >= this.startYear && movie.getReleaseYear() <= this.endYear;
+		}
+
+		@Override
+		protected boolean matches(MovieList movies, int row) {
+			int releaseYear = movies.getReleaseYearAt(row);
+			return releaseYear >= this.startYear && releaseYear <= this.endYear;
+		}
+
+		@Override
+		protected long estimate(MovieCollection collection) {
+			return collection.getYearIndex().estimate(this.startYear, this.endYear);
+		}
+
+		@Override
+		protected IdBitmap evaluate(MovieCollection collection) {
+			return new IdBitmap(collection.getYearIndex().search(this.startYear, this.endYear));
+		}
+
+		@Override
+		public String toString() {
+			return "released " + this.startYear + "-" + this.endYear;
+		}
+	}
+
+	/**
+	 * Conjunction of Queries, Planned by Cost.
+	 */
+	private static class And extends Query {
+
+		private final Query[] queries;
+
+		private And(Query[] queries) {
+			this.queries = queries.clone();
+		}
+
+		@Override
+		public boolean matches(Movie movie) {
+			for (Query query : this.queries) {
+				if (!query.matches(movie)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		protected long estimate(MovieCollection collection) {
+			long estimate = collection.getMovieCollection().size();
+			for (Query query : this.queries) {
+				estimate = Math.min(estimate, query.estimate(collection));
+			}
+			return estimate;
+		}
+
+		@Override
+		protected IdBitmap evaluate(MovieCollection collection) {
+			if (this.queries.length == 0) {
+				return allRows(collection);
+			}
+
+			// Order the queries from the most to the least selective
+			long[] estimates = new long[this.queries.length];
+			Integer[] order = new Integer[this.queries.length];
+			for (int i = 0; i < order.length; i++) {
+				estimates[i] = this.queries[i].estimate(collection);
+				order[i] = i;
+			}
+			Arrays.sort(order, Comparator.comparingLong(i -> estimates[i]));
+
+			// Intersect index results while that is cheaper than checking candidates
+			IdBitmap candidates = this.queries[order[0]].evaluate(collection);
+			int next = 1;
+			while (next < order.length && !candidates.isEmpty()
+					&& (long) candidates.cardinality() * CHECK_COST >= estimates[order[next]]) {
+				candidates = candidates.and(this.queries[order[next]].evaluate(collection));
+				next++;
+			}
+			if (next == order.length || candidates.isEmpty()) {
+				return candidates;
+			}
+
+			// Check the remaining queries against the few candidates left
+			MovieList movies = (MovieList) collection.getMovieCollection();
+			IdBitmap results = new IdBitmap();
+			int[] rows = candidates.toArray();
+			for (int c = 0; c < rows.length; c++) {
+				if ((c & SearchEngine.CHECK_INTERVAL) == 0) {
+					SearchEngine.checkCancelled();
+				}
+				int row = rows[c];
+				boolean matches = !movies.isRemoved(row);
+				for (int i = next; i < order.length && matches; i++) {
+					matches = this.queries[order[i]].matches(movies, row);
+				}
+				if (matches) {
+					results.add(row);
+				}
+			}
+			return results;
+		}
+
+		@Override
+		protected String key() {
+			return joinKeys(this.queries, "AND");
+		}
+
+		@Override
+		public String toString() {
+			return join(this.queries, " AND ");
+		}
+	}
+
+	/**
+	 * Disjunction of Queries.
+	 */
+	private static class Or extends Query {
+
+		private final Query[] queries;
+
+		private Or(Query[] queries) {
+			this.queries = queries.clone();
+		}
+
+		@Override
+		public boolean matches(Movie movie) {
+			for (Query query : this.queries) {
+				if (query.matches(movie)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		@Override
+		protected long estimate(MovieCollection collection) {
+			long estimate = 0;
+			for (Query query : this.queries) {
+				estimate += query.estimate(collection);
+			}
+			return Math.min(estimate, collection.getMovieCollection().size());
+		}
+
+		@Override
+		protected IdBitmap evaluate(MovieCollection collection) {
+			IdBitmap rows = new IdBitmap();
+			for (Query query : this.queries) {
+				rows = rows.or(query.evaluate(collection));
+			}
+			return rows;
+		}
+
+		@Override
+		protected String key() {
+			return joinKeys(this.queries, "OR");
+		}
+
+		@Override
+		public String toString() {
+			return join(this.queries, " OR ");
+		}
+	}
+
+	/**
+	 * Negation of a Query.
+	 */
+	private static class Not extends Query {
+
+		private final Query query;
+
+		private Not(Query query) {
+			this.query = query;
+		}
+
+		@Override
+		public boolean matches(Movie movie) {
+			return !this.query.matches(movie);
+		}
+
+		@Override
+		protected boolean matches(MovieList movies, int row) {
+			return !this.query.matches(movies, row);
+		}
+
+		@Override
+		protected long estimate(MovieCollection collection) {
+			return Math.max(0, collection.getMovieCollection().size() - this.query.estimate(collection));
+		}
+
+		@Override
+		protected IdBitmap evaluate(MovieCollection collection) {
+			return allRows(collection).andNot(this.query.evaluate(collection));
+		}
+
+		@Override
+		protected String key() {
+			return "NOT " + this.query.key();
+		}
+
+		@Override
+		public String toString() {
+			return "NOT " + this.query;
+		}
+	}
+
+	/**
+	 * @param queries   the queries to join
+	 * @param separator the operator between the queries
+	 * @return the queries joined in parentheses
+	 */
+	private static String join(Query[] queries, String separator) {
+		StringBuilder text = new StringBuilder("(");
+		for (int i = 0; i < queries.length; i++) {
+			text.append(i == 0 ? "" : separator).append(queries[i]);
+		}
+		return text.append(")").toString();
+	}
+
+	/**
+	 * @param queries  the queries to join
+	 * @param operator the operator joining the queries
+	 * @return the operator and the sorted keys of the queries in parentheses
+	 */
+	private static String joinKeys(Query[] queries, String operator) {
+		String[] keys = new String[queries.length];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = queries[i].key();
+		}
+		Arrays.sort(keys);
+		return operator + "(" + String.join(", ", keys) + ")";
+	}
+}
@@ -0,0 +1,180 @@
+package moviecollection;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Bounded Cache of Search Results, Keyed by Normalized Query.
+ *
+ * The cache holds the results of one collection at one version of it. Once
+ * the collection is changed, and its version with it, all cached results are
+ * dropped. The least recently used results are evicted once the cache holds
+ * too many results or too many rows in total.
+ *
+ * @author Olaf Wrieden
+ * @version 1.0
+ */
+public class QueryCache {
+
+	// Cache Settings
+	public static final int DEFAULT_MAXIMUM_ENTRIES = 256;
+	public static final int DEFAULT_MAXIMUM_ROWS = 1 << 20;
+
+	// Cache Attributes
+	private final int maximumEntries;
+	private final int maximumRows;
+	private final LinkedHashMap<String, SearchResult> results;
+	private long version;
+	private long cachedRows;
+
+	// Cache Statistics
+	private long hits;
+	private long misses;
+	private long evictions;
+	private long invalidations;
+
+	/**
+	 * Constructs a Query Cache of the default size
+	 */
+	public QueryCache() {
+		this(DEFAULT_MAXIMUM_ENTRIES, DEFAULT_MAXIMUM_ROWS);
+	}
+
+	/**
+	 * Constructs a Query Cache
+	 *
+	 * @param maximumEntries the greatest number of results to hold
+	 * @param maximumRows    the greatest number of rows to hold in all results
+	 */
+	public QueryCache(int maximumEntries, int maximumRows) {
+		this.maximumEntries = maximumEntries;
+		this.maximumRows = maximumRows;
+		this.results = new LinkedHashMap<String, SearchResult>(16, 0.75f, true);
+	}
+
+	/**
+	 * Looks up the result of a query
+	 *
+	 * @param key     the normalized query
+	 * @param version the current version of the collection
+	 * @return the cached result, or null if the query's result is not cached
+	 */
+	public synchronized SearchResult get(String key, long version) {
+		invalidate(version);
+		SearchResult result = this.results.get(key);
+		if (result == null) {
+			this.misses++;
+		} else {
+			this.hits++;
+		}
+		return result;
+	}
+
+	/**
+	 * Caches the result of a query, unless it holds too many rows
+	 *
+	 * @param key     the normalized query
+	 * @param version the version of the collection the result was found in
+	 * @param result  the result of the query
+	 */
+	public synchronized void put(String key, long version, SearchResult result) {
+		invalidate(version);
+		if (version != this.version || result.size() > this.maximumRows) {
+			return;
+		}
+		SearchResult replaced = this.results.put(key, result);
+		if (replaced != null) {
+			this.cachedRows -= replaced.size();
+		}
+		this.cachedRows += result.size();
+
+		// Evict the least recently used results
+		Iterator<SearchResult> eldest = this.results.values().iterator();
+		while (this.results.size() > this.maximumEntries || this.cachedRows > this.maximumRows) {
+			this.cachedRows -= eldest.next().size();
+			eldest.remove();
+			this.evictions++;
+		}
+	}
+
+	/**
+	 * Removes all results from the cache
+	 */
+	public synchronized void clear() {
+		this.results.clear();
+		this.cachedRows = 0;
+	}
+
+	/**
+	 * @return the number of results in the cache
+	 */
+	public synchronized int size() {
+		return this.results.size();
+	}
+
+	/**
+	 * @return the number of rows held by all results in the cache
+	 */
+	public synchronized long getCachedRows() {
+		return cachedRows;
+	}
+
+	/**
+	 * @return the number of lookups that found a cached result
+	 */
+	public synchronized long getHitCount() {
+		return hits;
+	}
+
+	/**
+	 * @return the number of lookups that found no cached result
+	 */
+	public synchronized long getMissCount() {
+		return misses;
+	}
+
+	/**
+	 * @return the number of results evicted to keep the cache within its bounds
+	 */
+	public synchronized long getEvictionCount() {
+		return evictions;
+	}
+
+	/**
+	 * @return the number of results dropped because the collection changed
+	 */
+	public synchronized long getInvalidationCount() {
+		return invalidations;
+	}
+
+	/**
+	 * @return the share of lookups that found a cached result
+	 */
+	public synchronized double getHitRate() {
+		long lookups = this.hits + this.misses;
+		return lookups == 0 ? 0 : (double) this.hits / lookups;
+	}
+
+	/**
+	 * @return the cache's statistics
+	 */
+	@Override
+	public synchronized String toString() {
+		return String.format("%d results (%d rows), %d hits, %d misses (%.1f%% hit rate), %d evictions, "
+				+ "%d invalidations", this.results.size(), this.cachedRows, this.hits, this.misses,
+				getHitRate() * 100, this.evictions, this.invalidations);
+	}
+
+	/**
+	 * Drops all results once the collection has moved on to a newer version
+	 *
+	 * @param version the current version of the collection
+	 */
+	private void invalidate(long version) {
+		if (version > this.version) {
+			this.invalidations += this.results.size();
+			clear();
+			this.version = version;
+		}
+	}
+}
@@ -0,0 +1,141 @@
+package moviecollection;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/**
+ * Background Executor of the Searches Started from the User Interface.
+ *
+ * Searches run one at a time on a worker thread, holding the collection's read
+ * lock. Starting a search cancels the one still running by interrupting it,
+ * and only the result of the latest search is published on the Event Dispatch
+ * Thread. Searches started while typing are debounced, so they only run once
+ * the user pauses. All methods must be called on the Event Dispatch Thread.
+ *
+ * @author Olaf Wrieden
+ * @version 1.0
+ */
+public class QueryExecutor {
+
+	// Executor Settings
+	public static final int DEFAULT_DELAY = 150;
+
+	// Executor Attributes
+	private final Lock lock;
+	private final LongConsumer latencyListener;
+	private final ExecutorService worker;
+	private final Timer debounce;
+	private Runnable pending;
+	private Future<?> running;
+	private long generation;
+
+	/**
+	 * Constructs a Query Executor
+	 *
+	 * @param lock            the lock held while searching, usually the read lock
+	 *                        of the collection
+	 * @param latencyListener receives the time in nanoseconds each published
+	 *                        search took, from starting it to publishing it
+	 */
+	public QueryExecutor(Lock lock, LongConsumer latencyListener) {
+		this.lock = lock;
+		this.latencyListener = latencyListener;
+		this.worker = Executors.newSingleThreadExecutor(task -> {
+			Thread thread = new Thread(task, "Query Executor");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.debounce = new Timer(DEFAULT_DELAY, event -> {
+			Runnable task = this.pending;
+			this.pending = null;
+			if (task != null) {
+				task.run();
+			}
+		});
+		this.debounce.setRepeats(false);
+	}
+
+	/**
+	 * Runs a search once no further search has been started for a short delay
+	 *
+	 * @param <T>     the type of the search's result
+	 * @param search  the search to run on the worker thread
+	 * @param publish receives the search's result on the Event Dispatch Thread,
+	 *                unless the search is superseded
+	 */
+	public <T> void submitLater(Callable<T> search, Consumer<? super T> publish) {
+		cancel();
+		this.pending = () -> submit(search, publish);
+		this.debounce.restart();
+	}
+
+	/**
+	 * Runs a search right away, superseding all previously started searches
+	 *
+	 * @param <T>     the type of the search's result
+	 * @param search  the search to run on the worker thread
+	 * @param publish receives the search's result on the Event Dispatch Thread,
+	 *                unless the search is superseded
+	 */
+	public <T> void submit(Callable<T> search, Consumer<? super T> publish) {
+		cancel();
+		long searchGeneration = this.generation;
+		long start = System.nanoTime();
+		this.running = this.worker.submit(() -> {
+			T result;
+			this.lock.lock();
+			try {
+				if (Thread.currentThread().isInterrupted()) {
+					return;
+				}
+				result = search.call();
+			} catch (CancellationException e) {
+				return;
+			} catch (Exception e) {
+				e.printStackTrace();
+				return;
+			} finally {
+				this.lock.unlock();
+			}
+
+			// Publish the result, unless another search was started meanwhile
+			SwingUtilities.invokeLater(() -> {
+				if (searchGeneration == this.generation) {
+					publish.accept(result);
+					this.latencyListener.accept(System.nanoTime() - start);
+				}
+			});
+		});
+	}
+
+	/**
+	 * Cancels the pending and the running search, so that neither is published.
+	 * The running search stops at its next check for cancellation.
+	 */
+	public void cancel() {
+		this.generation++;
+		this.pending = null;
+		this.debounce.stop();
+		if (this.running != null) {
+			this.running.cancel(true);
+			this.running = null;
+		}
+	}
+
+	/**
+	 * Cancels all searches and stops the worker thread
+	 */
+	public void shutdown() {
+		cancel();
+		this.worker.shutdownNow();
+	}
+}
@@ -1,5 +1,19 @@
 package moviecollection;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
 /**
  * Attribute-based Movie Collection Search Functions.
  * 
@@ -8,8 +22,23 @@ package moviecollection;
  */
 public class SearchEngine {
 
+	// Scan Settings
+	private static final int PARALLEL_THRESHOLD = 1 << 15;
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	// Searches check for cancellation after this many movies (a power of two, minus one)
+	static final int CHECK_INTERVAL = 4095;
+
+	// Ranking a match costs about as much as testing this many rows of an index
+	private static final int RANK_COST = 16;
+
+	// Reading a movie costs about as much as testing this many rows of an index
+	private static final int READ_COST = 16;
+
 	// Search Engine Attributes
 	private MovieCollection movieCollection;
+	private ForkJoinPool scanPool = ForkJoinPool.commonPool();
+	private final QueryCache queryCache = new QueryCache();
 
 	/**
 	 * Constructs a new Search Engine
@@ -24,60 +53,40 @@ public class SearchEngine {
 	 * Searches by Title
 	 * 
 	 * @param title the title of the movie to search for
-	 * @return a filtered movie collection
+	 * @return a view of the matching movies
 	 */
-	public MovieCollection byTitle(String title) {
-		MovieCollection results = new MovieCollection();
-
-		for (Movie movie : movieCollection.getMovieCollection()) {
-			if (movie.getTitle().toLowerCase().contains(title.toLowerCase())) {
-				results.addToMovieCollection(movie);
-			}
-		}
-		return results;
+	public SearchResult byTitle(String title) {
+		return this.substring(SearchField.TITLE, title);
 	}
 
 	/**
 	 * Searches by Director
 	 * 
 	 * @param director the name of the director to search for
-	 * @return a filtered movie collection
+	 * @return a view of the matching movies
 	 */
-	public MovieCollection byDirector(String director) {
-		MovieCollection results = new MovieCollection();
-
-		for (Movie movie : movieCollection.getMovieCollection()) {
-			if (movie.getDirector().toLowerCase().contains(director.toLowerCase())) {
-				results.addToMovieCollection(movie);
-			}
-		}
-		return results;
+	public SearchResult byDirector(String director) {
+		return this.substring(SearchField.DIRECTOR, director);
 	}
 
 	/**
 	 * Searches by Genre
 	 * 
 	 * @param genre the movie genre to search for
-	 * @return a filtered movie collection
+	 * @return a view of the matching movies
 	 */
-	public MovieCollection byGenre(Genre genre) {
-		MovieCollection results = new MovieCollection();
-
-		for (Movie movie : movieCollection.getMovieCollection()) {
-			if (movie.getGenre().equals(genre)) {
-				results.addToMovieCollection(movie);
-			}
-		}
-		return results;
+	public SearchResult byGenre(Genre genre) {
+		return this.cached(Query.genre(genre).key(),
+				() -> this.movieCollection.getAttributeIndex().search(genre, Rating.ONE, Rating.FIVE));
 	}
 
 	/**
 	 * Searches by Release Year
 	 * 
 	 * @param year the release year to search for
-	 * @return a filtered movie collection
+	 * @return a view of the matching movies
 	 */
-	public MovieCollection byReleasedYear(int year) {
+	public SearchResult byReleasedYear(int year) {
 		return this.releasedBetween(year, year);
 	}
 
@@ -85,17 +94,14 @@ public class SearchEngine {
 	 * Searches by Released Prior to Year (exclusive)
 	 * 
 	 * @param year the upper-bound release year to search for (exclusive)
-	 * @return a filtered movie collection
+	 * @return a view of the matching movies
 	 */
-	public MovieCollection releasedBefore(int year) {
-		MovieCollection results = new MovieCollection();
-
-		for (Movie movie : movieCollection.getMovieCollection()) {
-			if (movie.getReleaseYear() < year) {
-				results.addToMovieCollection(movie);
-			}
+	public SearchResult releasedBefore(int year) {
+		if (year == Integer.MIN_VALUE) {
+			// No year precedes the least year, and year - 1 would wrap around
+			return this.fromRows(new int[0]);
 		}
-		return results;
+		return this.releasedBetween(Integer.MIN_VALUE, year - 1);
 	}
 
 	/**
@@ -103,43 +109,34 @@ public class SearchEngine {
 	 * 
 	 * @param startYear the lower-bound release year to search for (inclusive)
 	 * @param endYear   the upper-bound release year to search for (inclusive)
-	 * @return a filtered movie collection
+	 * @return a view of the matching movies
 	 */
-	public MovieCollection releasedBetween(int startYear, int endYear) {
-		MovieCollection results = new MovieCollection();
-
-		for (Movie movie : movieCollection.getMovieCollection()) {
-			if ((movie.getReleaseYear() >= startYear) && (movie.getReleaseYear() <= endYear)) {
-				results.addToMovieCollection(movie);
-			}
-		}
-		return results;
+	public SearchResult releasedBetween(int startYear, int endYear) {
+		return this.cached(Query.released(startYear, endYear).key(),
+				() -> this.movieCollection.getYearIndex().search(startYear, endYear));
 	}
 
 	/**
 	 * Searches by Released After Year (exclusive)
 	 * 
 	 * @param year the lower-bound release year to search for
-	 * @return a filtered movie collection
+	 * @return a view of the matching movies
 	 */
-	public MovieCollection releasedAfter(int year) {
-		MovieCollection results = new MovieCollection();
-
-		for (Movie movie : movieCollection.getMovieCollection()) {
-			if (movie.getReleaseYear() > year) {
-				results.addToMovieCollection(movie);
-			}
+	public SearchResult releasedAfter(int year) {
+		if (year == Integer.MAX_VALUE) {
+			// No year follows the greatest year, and year + 1 would wrap around
+			return this.fromRows(new int[0]);
 		}
-		return results;
+		return this.releasedBetween(year + 1, Integer.MAX_VALUE);
 	}
 
 	/**
 	 * Searches by Rating
 	 * 
 	 * @param rating the rating to search for
-	 * @return a filtered movie collection
+	 * @return a view of the matching movies
 	 */
-	public MovieCollection byRating(Rating rating) {
+	public SearchResult byRating(Rating rating) {
 		return this.ratingBetween(rating, rating);
 	}
 
@@ -148,67 +145,441 @@ public class SearchEngine {
 	 * 
 	 * @param lowestRating  the lower-bound rating to search for (inclusive)
 	 * @param highestRating the upper-bound rating to search for (inclusive)
-	 * @return a filtered movie collection
+	 * @return a view of the matching movies
 	 */
-	public MovieCollection ratingBetween(Rating lowestRating, Rating highestRating) {
-		MovieCollection results = new MovieCollection();
+	public SearchResult ratingBetween(Rating lowestRating, Rating highestRating) {
+		return this.byGenreAndRating(null, lowestRating, highestRating);
+	}
 
-		for (Movie movie : movieCollection.getMovieCollection()) {
-			if (movie.getRating().compareTo(lowestRating) >= 0 && movie.getRating().compareTo(highestRating) <= 0) {
-				results.addToMovieCollection(movie);
-			}
+	/**
+	 * Searches by Genre and Ratings Between Two Ratings (inclusive)
+	 * 
+	 * @param genre         the movie genre to search for, or null for any genre
+	 * @param lowestRating  the lower-bound rating to search for (inclusive)
+	 * @param highestRating the upper-bound rating to search for (inclusive)
+	 * @return a view of the matching movies
+	 */
+	public SearchResult byGenreAndRating(Genre genre, Rating lowestRating, Rating highestRating) {
+		if (lowestRating.compareTo(highestRating) > 0) {
+			return this.fromRows(new int[0]);
 		}
-		return results;
+		Query query = genre == null ? Query.rating(lowestRating, highestRating)
+				: Query.and(Query.genre(genre), Query.rating(lowestRating, highestRating));
+		return this.cached(query.key(),
+				() -> this.movieCollection.getAttributeIndex().search(genre, lowestRating, highestRating));
 	}
 
 	/**
 	 * Searches by Ratings Below Rating
 	 * 
 	 * @param rating the upper-bound rating to search for (exclusive)
-	 * @return a filtered movie collection
+	 * @return a view of the matching movies
 	 */
-	public MovieCollection ratingBelow(Rating rating) {
-		MovieCollection results = new MovieCollection();
-
-		for (Movie movie : movieCollection.getMovieCollection()) {
-			if ((movie.getRating().compareTo(rating)) < 0) {
-				results.addToMovieCollection(movie);
-			}
+	public SearchResult ratingBelow(Rating rating) {
+		if (rating == Rating.ONE) {
+			return this.fromRows(new int[0]);
 		}
-		return results;
+		return this.ratingBetween(Rating.ONE, Rating.values()[rating.ordinal() - 1]);
 	}
 
 	/**
 	 * Searches by Ratings Above Rating
 	 * 
 	 * @param rating the lower-bound rating to search for (exclusive)
-	 * @return a filtered movie collection
+	 * @return a view of the matching movies
 	 */
-	public MovieCollection ratingAbove(Rating rating) {
-		MovieCollection results = new MovieCollection();
-
-		for (Movie movie : movieCollection.getMovieCollection()) {
-			if ((movie.getRating().compareTo(rating)) > 0) {
-				results.addToMovieCollection(movie);
-			}
+	public SearchResult ratingAbove(Rating rating) {
+		if (rating == Rating.FIVE) {
+			return this.fromRows(new int[0]);
 		}
-		return results;
+		return this.ratingBetween(Rating.values()[rating.ordinal() + 1], Rating.FIVE);
 	}
 
 	/**
 	 * Searches by Cast Members
 	 * 
 	 * @param memberName the name of the cast member to search for
-	 * @return a filtered movie collection
+	 * @return a view of the matching movies
+	 */
+	public SearchResult byCast(String memberName) {
+		return this.substring(SearchField.CAST, memberName);
+	}
+
+	/**
+	 * Runs a query as a single plan over the collection's indexes
+	 * 
+	 * @param query the query to run
+	 * @return a view of the matching movies
+	 */
+	public SearchResult search(Query query) {
+		return this.cached(query.key(), () -> {
+			MovieList movies = (MovieList) this.movieCollection.getMovieCollection();
+			int[] rows = query.evaluate(this.movieCollection).toArray();
+			int count = 0;
+			for (int row : rows) {
+				if (movies.positionOfRow(row) != -1) {
+					rows[count++] = row;
+				}
+			}
+			return Arrays.copyOf(rows, count);
+		});
+	}
+
+	/**
+	 * Runs a query and returns a page of its results in order. Only the first
+	 * offset + limit results are ever ordered: they are kept in a bounded heap
+	 * while the results are read, or, when ordering by year and matches are
+	 * common, read in order from the year index until enough are found. Results
+	 * that are equal in the field keep the collection's order. Use
+	 * {@code Query.and()} to order all movies.
+	 * 
+	 * @param query      the query to run
+	 * @param field      the field to order the results by
+	 * @param descending true to order from the highest to the lowest, else false
+	 * @param offset     the number of ordered results to skip
+	 * @param limit      the greatest number of results to return
+	 * @return a view of the page of matching movies, in order
+	 */
+	public SearchResult search(Query query, SortField field, boolean descending, int offset, int limit) {
+		if (offset < 0 || limit < 0) {
+			throw new IllegalArgumentException("Offset and limit must not be negative: " + offset + ", " + limit);
+		}
+		String key = query.key() + " ORDER BY " + field + (descending ? " DESC" : "") + " OFFSET " + offset
+				+ " LIMIT " + limit;
+		return this.cached(key, () -> {
+			MovieList movies = (MovieList) this.movieCollection.getMovieCollection();
+			IdBitmap matches = query.evaluate(this.movieCollection);
+			int count = (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+
+			// Walking the year index tests about count * size / matches rows, which
+			// is far cheaper per row than reading and ranking every match
+			long candidates = matches.cardinality();
+			int[] rows;
+			if (field == SortField.YEAR && (long) count * movies.size() < candidates * candidates * RANK_COST) {
+				rows = this.movieCollection.getYearIndex().ordered(descending, matches::contains, count);
+			} else {
+				Comparator<Movie> order = descending ? field.comparator().reversed() : field.comparator();
+				rows = top(movies, matches, order, count);
+			}
+			return Arrays.copyOfRange(rows, Math.min(offset, rows.length), rows.length);
+		});
+	}
+
+	/**
+	 * Counts the movies matching a query per genre, rating and release decade
+	 * at once. Few matches are counted in a single pass over the attributes of
+	 * the matching movies; many matches are counted from the attribute and year
+	 * indexes. Neither decodes any movie.
+	 * 
+	 * @param query the query to count the matches of, or {@code Query.and()} to
+	 *              count all movies
+	 * @return the number of matching movies per genre, rating and decade
+	 */
+	public FacetCounts facets(Query query) {
+		MovieList movies = (MovieList) this.movieCollection.getMovieCollection();
+		int[] rows = this.search(query).getRows();
+		int[] genres = new int[Genre.values().length];
+		int[] ratings = new int[Rating.values().length];
+		TreeMap<Integer, Integer> decades = new TreeMap<Integer, Integer>();
+		if ((long) rows.length * READ_COST < movies.getRowCount()) {
+			for (int i = 0; i < rows.length; i++) {
+				if ((i & CHECK_INTERVAL) == 0) {
+					checkCancelled();
+				}
+				genres[movies.getGenreAt(rows[i]).ordinal()]++;
+				ratings[movies.getRatingAt(rows[i]).ordinal()]++;
+				decades.merge(FacetCounts.decadeOf(movies.getReleaseYearAt(rows[i])), 1, Integer::sum);
+			}
+		} else {
+			IdBitmap matches = new IdBitmap(rows);
+			this.movieCollection.getAttributeIndex().count(matches, genres, ratings);
+			this.movieCollection.getYearIndex().countDecades(matches, decades);
+		}
+		return new FacetCounts(rows.length, genres, ratings, decades);
+	}
+
+	/**
+	 * Searches by any Condition, scanning the whole collection. Collections of
+	 * at least {@value #PARALLEL_THRESHOLD} movies are split into chunks that are
+	 * scanned in parallel, and the chunks' matches are joined in order. The
+	 * collection must not change during the scan, so a cancelled search waits
+	 * for its running chunks before it returns.
+	 * 
+	 * @param filter selects the movies to find
+	 * @return a view of the matching movies
+	 */
+	public SearchResult filter(Predicate<? super Movie> filter) {
+		MovieList movies = (MovieList) this.movieCollection.getMovieCollection();
+		return this.filterRows(row -> filter.test(movies.readMovieAtRow(row)));
+	}
+
+	/**
+	 * Searches by any Condition on the rows of the movies, scanning the whole
+	 * collection as {@link #filter(Predicate)} does. A condition reading only
+	 * the columns it compares, such as {@link MovieList#getGenreAt(int)}, walks
+	 * the stored columns without decoding any movie.
+	 * 
+	 * @param filter selects the rows of the movies to find
+	 * @return a view of the matching movies
+	 */
+	public SearchResult filterRows(IntPredicate filter) {
+		MovieList movies = (MovieList) this.movieCollection.getMovieCollection();
+		int size = movies.size();
+		if (this.scanPool == null || size < PARALLEL_THRESHOLD) {
+			return this.fromRows(scan(movies, filter, 0, size, () -> false));
+		}
+
+		// Scan the chunks on the pool, then join their matches in order
+		int chunkSize = Math.max(PARALLEL_THRESHOLD / CHUNKS_PER_THREAD,
+				size / (this.scanPool.getParallelism() * CHUNKS_PER_THREAD) + 1);
+		AtomicBoolean stopped = new AtomicBoolean();
+		ArrayList<ForkJoinTask<int[]>> chunks = new ArrayList<ForkJoinTask<int[]>>();
+		for (int from = 0; from < size; from += chunkSize) {
+			int start = from;
+			int end = Math.min(size, from + chunkSize);
+			chunks.add(this.scanPool.submit(() -> scan(movies, filter, start, end, stopped::get)));
+		}
+		int[][] matches = new int[chunks.size()][];
+		int count = 0;
+		boolean joined = false;
+		try {
+			for (int i = 0; i < matches.length; i++) {
+				checkCancelled();
+				matches[i] = chunks.get(i).join();
+				count += matches[i].length;
+			}
+			joined = true;
+		} finally {
+			if (!joined) {
+				// Stop the chunks and wait for them, so that none of them reads the
+				// collection once the search has returned. A cancelled task counts
+				// as done while it still runs, so the chunks stop themselves.
+				stopped.set(true);
+				for (ForkJoinTask<int[]> chunk : chunks) {
+					chunk.quietlyJoin();
+				}
+			}
+		}
+		int[] rows = new int[count];
+		count = 0;
+		for (int[] chunk : matches) {
+			System.arraycopy(chunk, 0, rows, count, chunk.length);
+			count += chunk.length;
+		}
+		return this.fromRows(rows);
+	}
+
+	/**
+	 * @return the cache of the results of recent searches
+	 */
+	public QueryCache getQueryCache() {
+		return queryCache;
+	}
+
+	/**
+	 * @return the number of threads scanning large collections
 	 */
-	public MovieCollection byCast(String memberName) {
-		MovieCollection results = new MovieCollection();
+	public int getParallelism() {
+		return this.scanPool == null ? 1 : this.scanPool.getParallelism();
+	}
 
-		for (Movie movie : movieCollection.getMovieCollection()) {
-			if (movie.getStringCastList().toLowerCase().contains(memberName.toLowerCase())) {
-				results.addToMovieCollection(movie);
+	/**
+	 * Sets the number of threads scanning large collections. A parallelism of 1
+	 * scans on the calling thread only.
+	 * 
+	 * @param parallelism the number of threads
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+		}
+		if (this.scanPool != null && this.scanPool != ForkJoinPool.commonPool()) {
+			this.scanPool.shutdown();
+		}
+		this.scanPool = parallelism == 1 ? null : new ForkJoinPool(parallelism);
+	}
+
+	/**
+	 * Searches by Words. Matches the movies whose field holds a word starting
+	 * with each word of the search term, so "spiel" finds "Steven Spielberg".
+	 * 
+	 * @param field the field to search
+	 * @param words the words to search for
+	 * @return a view of the matching movies
+	 */
+	public SearchResult byWords(SearchField field, String words) {
+		return this.cached(Query.words(field, words).key(),
+				() -> this.movieCollection.getTokenIndex().search(field, words));
+	}
+
+	/**
+	 * Searches by Misspelt Words. Matches the movies whose field holds, for
+	 * each word of the search term, a word within a few edits of it, so
+	 * "DiCapro" finds "Leonardo DiCaprio". Words of up to two characters must
+	 * match exactly, words of up to five characters may be one edit off and
+	 * longer words two edits.
+	 * 
+	 * @param field the field to search
+	 * @param words the words to search for
+	 * @return a view of the matching movies, the closest matches first
+	 */
+	public SearchResult fuzzy(SearchField field, String words) {
+		return this.fuzzy(field, words, -1);
+	}
+
+	/**
+	 * Searches by Misspelt Words, allowing up to the given number of edits in
+	 * each word
+	 * 
+	 * @param field       the field to search
+	 * @param words       the words to search for
+	 * @param maxDistance the greatest number of edits to allow per word, or -1
+	 *                    to allow more edits in longer words
+	 * @return a view of the matching movies, the closest matches first
+	 */
+	public SearchResult fuzzy(SearchField field, String words, int maxDistance) {
+		return this.cached("RANKED " + Query.fuzzy(field, words, maxDistance).key(),
+				() -> this.movieCollection.getTokenIndex().searchFuzzy(field, words, maxDistance));
+	}
+
+	/**
+	 * Searches a field for a case-insensitive substring
+	 * 
+	 * @param field the field to search
+	 * @param text  the text to search for
+	 * @return a view of the matching movies
+	 */
+	private SearchResult substring(SearchField field, String text) {
+		return this.cached(Query.contains(field, text).key(),
+				() -> this.movieCollection.getTrigramIndex().search(field, text));
+	}
+
+	/**
+	 * Scans a range of positions of the movies
+	 * 
+	 * @param movies  the movies to scan
+	 * @param filter  selects the rows of the movies to find
+	 * @param from    the first position to scan (inclusive)
+	 * @param to      the last position to scan (exclusive)
+	 * @param stopped tells if the scan should stop
+	 * @return the ascending rows of the matching movies
+	 */
+	private static int[] scan(MovieList movies, IntPredicate filter, int from, int to, BooleanSupplier stopped) {
+		IntList rows = new IntList();
+		for (int i = from; i < to; i++) {
+			if (i == from || (i & CHECK_INTERVAL) == 0) {
+				checkCancelled();
+				if (stopped.getAsBoolean()) {
+					throw new CancellationException("The search was cancelled");
+				}
+			}
+			int row = movies.getRowAt(i);
+			if (filter.test(row)) {
+				rows.add(row);
 			}
 		}
-		return results;
+		return rows.toArray();
+	}
+
+	/**
+	 * Finds the first visible matches in order, keeping the best matches found
+	 * so far in a heap headed by the worst of them
+	 * 
+	 * @param movies  the searched movies
+	 * @param matches the rows of the matching movies
+	 * @param order   the order of the movies
+	 * @param count   the number of movies to find
+	 * @return the rows of up to count movies, in order
+	 */
+	private static int[] top(MovieList movies, IdBitmap matches, Comparator<Movie> order, int count) {
+		if (count == 0) {
+			return new int[0];
+		}
+		Comparator<Ranked> ranking = (a, b) -> {
+			int comparison = order.compare(a.movie, b.movie);
+			return comparison != 0 ? comparison : Integer.compare(a.row, b.row);
+		};
+		PriorityQueue<Ranked> heap = new PriorityQueue<Ranked>(Math.min(count, matches.cardinality()) + 1,
+				ranking.reversed());
+		int[] rows = matches.toArray();
+		for (int i = 0; i < rows.length; i++) {
+			if ((i & CHECK_INTERVAL) == 0) {
+				checkCancelled();
+			}
+			int row = rows[i];
+			if (movies.positionOfRow(row) == -1) {
+				continue;
+			}
+			Ranked ranked = new Ranked(row, movies.readMovieAtRow(row));
+			if (heap.size() < count) {
+				heap.add(ranked);
+			} else if (ranking.compare(ranked, heap.peek()) < 0) {
+				heap.poll();
+				heap.add(ranked);
+			}
+		}
+		rows = new int[heap.size()];
+		for (int i = rows.length - 1; i >= 0; i--) {
+			rows[i] = heap.poll().row;
+		}
+		return rows;
+	}
+
+	/**
+	 * Looks up the result of a query in the query cache, searching for it on a
+	 * miss. Results are not cached while the collection is still being loaded,
+	 * as more movies become visible without a change of version.
+	 * 
+	 * @param key    the normalized query
+	 * @param search finds the rows of the matching movies
+	 * @return a view of the matching movies
+	 */
+	private SearchResult cached(String key, Supplier<int[]> search) {
+		if (!((MovieList) this.movieCollection.getMovieCollection()).isLoaded()) {
+			return this.fromRows(search.get());
+		}
+		long version = this.movieCollection.getVersion();
+		SearchResult result = this.queryCache.get(key, version);
+		if (result == null) {
+			result = this.fromRows(search.get());
+			this.queryCache.put(key, version, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Stops a search whose thread has been interrupted, as superseded searches
+	 * of a {@link QueryExecutor} are
+	 * 
+	 * @throws CancellationException if the current thread has been interrupted
+	 */
+	static void checkCancelled() {
+		if (Thread.currentThread().isInterrupted()) {
+			throw new CancellationException("The search was cancelled");
+		}
+	}
+
+	/**
+	 * Views the movies in the rows of the collection
+	 * 
+	 * @param rows the ascending rows of the movies to view
+	 * @return a view of the movies
+	 */
+	private SearchResult fromRows(int[] rows) {
+		return new SearchResult((MovieList) this.movieCollection.getMovieCollection(), rows);
+	}
+
+	/**
+	 * A Movie Ranked in a Heap, with the Row it is Stored in.
+	 */
+	private static class Ranked {
+
+		private final int row;
+		private final Movie movie;
+
+		private Ranked(int row, Movie movie) {
+			this.row = row;
+			this.movie = movie;
+		}
 	}
 }
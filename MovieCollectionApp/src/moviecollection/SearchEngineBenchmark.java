@@ -0,0 +1,202 @@
+package moviecollection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Benchmark of the Search Engine on a Generated Collection.
+ *
+ * Run with {@code java moviecollection.SearchEngineBenchmark [movies]}; the
+ * collection holds one million movies unless another size is given.
+ *
+ * @author Olaf Wrieden
+ * @version 1.0
+ */
+public class SearchEngineBenchmark {
+
+	// Benchmark Settings
+	private static final int DEFAULT_MOVIES = 1000000;
+	private static final int WARMUP_RUNS = 3;
+	private static final int MEASURED_RUNS = 10;
+
+	/**
+	 * Prevents instantiation of this utility class
+	 */
+	private SearchEngineBenchmark() {
+	}
+
+	/**
+	 * Runs the benchmark
+	 *
+	 * @param args optionally, the number of movies to generate
+	 */
+	public static void main(String[] args) {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MOVIES;
+		MovieCollection collection = new MovieCollection(generate(size, 42));
+		System.out.printf("Benchmarking %,d movies%n", size);
+
+		long start = System.nanoTime();
+		collection.getYearIndex().search(0, 0);
+		System.out.printf("%-40s %10.1f ms%n", "Build year index", (System.nanoTime() - start) / 1e6);
+		benchmarkYears(collection, 1999, 1999);
+		benchmarkYears(collection, 2005, 2010);
+		benchmarkYears(collection, 1900, 2100);
+		benchmarkAttributes(collection, Genre.DRAMA, Rating.TWO, Rating.FOUR);
+		benchmarkTop(collection, Genre.DRAMA, Rating.FIVE);
+		benchmarkScan(collection, "night");
+	}
+
+	/**
+	 * Compares a page of ordered results with sorting all matches
+	 *
+	 * @param collection the collection to search
+	 * @param genre      the genre to find
+	 * @param rating     the rating to find
+	 */
+	private static void benchmarkTop(MovieCollection collection, Genre genre, Rating rating) {
+		SearchEngine engine = collection.getSearchEngine();
+		Query query = Query.and(Query.genre(genre), Query.rating(rating, rating));
+		String name = genre + " " + rating + " by year";
+		measure("Sort all " + name, (Supplier<List<Movie>>) () -> {
+			ArrayList<Movie> results = new ArrayList<Movie>(engine.search(query));
+			results.sort(SortField.YEAR.comparator().reversed());
+			return results.subList(0, Math.min(50, results.size()));
+		});
+		measure("Top 50 " + name, (Supplier<List<Movie>>) () -> engine.search(query, SortField.YEAR, true, 0, 50));
+		measure("Page 20 of 50 " + name,
+				(Supplier<List<Movie>>) () -> engine.search(query, SortField.YEAR, true, 950, 50));
+		measure("Top 50 all by title",
+				(Supplier<List<Movie>>) () -> engine.search(Query.and(), SortField.TITLE, false, 0, 50));
+	}
+
+	/**
+	 * Measures a full scan with one thread and with each doubling of threads up
+	 * to the number of available processors
+	 *
+	 * @param collection the collection to search
+	 * @param text       the text the titles must contain
+	 */
+	private static void benchmarkScan(MovieCollection collection, String text) {
+		SearchEngine engine = collection.getSearchEngine();
+		int processors = Runtime.getRuntime().availableProcessors();
+		for (int threads = 1; threads <= processors; threads = threads == processors ? threads + 1
+				: Math.min(threads * 2, processors)) {
+			engine.setParallelism(threads);
+			measure("Scan \"" + text + "\" " + threads + " threads",
+					(Supplier<List<Movie>>) () -> engine.filter(movie -> movie.getTitle().toLowerCase().contains(text)));
+		}
+		engine.setParallelism(processors);
+	}
+
+	/**
+	 * Compares a combined genre and rating query with a linear scan
+	 *
+	 * @param collection the collection to search
+	 * @param genre      the genre to find
+	 * @param lowest     the lowest rating to find (inclusive)
+	 * @param highest    the highest rating to find (inclusive)
+	 */
+	private static void benchmarkAttributes(MovieCollection collection, Genre genre, Rating lowest, Rating highest) {
+		String query = genre + " " + lowest + "-" + highest;
+		measure("Attribute scan " + query, (Supplier<List<Movie>>) () -> {
+			ArrayList<Movie> results = new ArrayList<Movie>();
+			for (Movie movie : collection.getMovieCollection()) {
+				if (movie.getGenre().equals(genre) && movie.getRating().compareTo(lowest) >= 0
+						&& movie.getRating().compareTo(highest) <= 0) {
+					results.add(movie);
+				}
+			}
+			return results;
+		});
+		measure("Attribute bitmaps " + query,
+				(Supplier<List<Movie>>) () -> collection.getSearchEngine().byGenreAndRating(genre, lowest, highest));
+		measure("Attribute bitmaps rows " + query,
+				() -> collection.getAttributeIndex().search(genre, lowest, highest).length);
+	}
+
+	/**
+	 * Compares a release year range query with a linear scan
+	 *
+	 * @param collection the collection to search
+	 * @param startYear  the first release year (inclusive)
+	 * @param endYear    the last release year (inclusive)
+	 */
+	private static void benchmarkYears(MovieCollection collection, int startYear, int endYear) {
+		String range = startYear + "-" + endYear;
+		measure("Year scan " + range, (Supplier<List<Movie>>) () -> {
+			ArrayList<Movie> results = new ArrayList<Movie>();
+			for (Movie movie : collection.getMovieCollection()) {
+				if (movie.getReleaseYear() >= startYear && movie.getReleaseYear() <= endYear) {
+					results.add(movie);
+				}
+			}
+			return results;
+		});
+		measure("Year index " + range,
+				(Supplier<List<Movie>>) () -> collection.getSearchEngine().releasedBetween(startYear, endYear));
+		measure("Year index copied " + range, (Supplier<List<Movie>>) () -> new ArrayList<Movie>(
+				collection.getSearchEngine().releasedBetween(startYear, endYear)));
+		measure("Year index rows " + range, () -> collection.getYearIndex().search(startYear, endYear).length);
+	}
+
+	/**
+	 * Runs a query repeatedly and prints its median duration
+	 *
+	 * @param name  the name of the query
+	 * @param query the query to run
+	 */
+	private static void measure(String name, Supplier<List<Movie>> query) {
+		measure(name, () -> query.get().size());
+	}
+
+	/**
+	 * Runs a query repeatedly and prints its median duration
+	 *
+	 * @param name  the name of the query
+	 * @param query the query to run, returning the number of results
+	 */
+	private static void measure(String name, IntSupplier query) {
+		int results = 0;
+		for (int i = 0; i < WARMUP_RUNS; i++) {
+			results = query.getAsInt();
+		}
+		long[] durations = new long[MEASURED_RUNS];
+		for (int i = 0; i < MEASURED_RUNS; i++) {
+			long start = System.nanoTime();
+			results = query.getAsInt();
+			durations[i] = System.nanoTime() - start;
+		}
+		Arrays.sort(durations);
+		System.out.printf("%-40s %10.3f ms %,12d results%n", name, durations[MEASURED_RUNS / 2] / 1e6, results);
+	}
+
+	/**
+	 * Generates a collection of random movies
+	 *
+	 * @param size the number of movies
+	 * @param seed the seed of the random values
+	 * @return the generated movies
+	 */
+	static MovieList generate(int size, long seed) {
+		Random random = new Random(seed);
+		String[] words = { "Star", "Night", "Lost", "City", "Dark", "Love", "King", "River", "Last", "Blue", "Storm",
+				"Ghost", "Empire", "Dream", "Fire", "Silent", "Winter", "Road", "Secret", "Heart" };
+		ArrayList<Movie> movies = new ArrayList<Movie>(size);
+		for (int i = 0; i < size; i++) {
+			String title = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)] + " "
+					+ Integer.toString(i, 36);
+			String[] castList = new String[1 + random.nextInt(4)];
+			for (int j = 0; j < castList.length; j++) {
+				castList[j] = "Actor " + random.nextInt(size / 10 + 1);
+			}
+			movies.add(new Movie(title, "Director " + random.nextInt(size / 100 + 1),
+					Genre.values()[random.nextInt(Genre.values().length)], 1920 + random.nextInt(100),
+					Rating.values()[random.nextInt(Rating.values().length)], castList));
+		}
+		return new MovieList(movies);
+	}
+}
@@ -0,0 +1,28 @@
+package moviecollection;
+
+/**
+ * Text Attributes of a Movie that can be Searched.
+ * 
+ * @author Olaf Wrieden
+ * @version 1.0
+ */
+public enum SearchField {
+	TITLE,
+	DIRECTOR,
+	CAST;
+
+	/**
+	 * @param movie the movie to read the attribute of
+	 * @return the attribute's text as shown in the collection table
+	 */
+	public String getText(Movie movie) {
+		switch (this) {
+		case TITLE:
+			return movie.getTitle();
+		case DIRECTOR:
+			return movie.getDirector();
+		default:
+			return movie.getStringCastList();
+		}
+	}
+}
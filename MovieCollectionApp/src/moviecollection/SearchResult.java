@@ -0,0 +1,170 @@
+package moviecollection;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Result of a Search, Viewed over the Searched Movie List.
+ *
+ * A result only holds the rows of the matching movies and reads each movie
+ * from the searched list when it is asked for, so no movies are copied to
+ * count, slice or further filter a result. A result reflects the list at the
+ * time of the search and should be searched again once movies are removed
+ * from the list.
+ *
+ * @author Olaf Wrieden
+ * @version 1.0
+ */
+public class SearchResult extends AbstractList<Movie> implements RandomAccess {
+
+	// Result Attributes
+	private final MovieList movies;
+	private final int[] rows;
+	private final int from;
+	private final int to;
+
+	/**
+	 * Constructs a Search Result
+	 *
+	 * @param movies the searched movies
+	 * @param rows   the rows of the matching movies, in result order
+	 */
+	SearchResult(MovieList movies, int[] rows) {
+		this(movies, rows, 0, rows.length);
+	}
+
+	/**
+	 * Constructs a Search Result over a range of rows
+	 *
+	 * @param movies the searched movies
+	 * @param rows   the rows of the matching movies, in result order
+	 * @param from   the position of the first row of the result (inclusive)
+	 * @param to     the position of the last row of the result (exclusive)
+	 */
+	private SearchResult(MovieList movies, int[] rows, int from, int to) {
+		this.movies = movies;
+		this.rows = rows;
+		this.from = from;
+		this.to = to;
+	}
+
+	/**
+	 * @param index the position of the movie in the result
+	 * @return the movie at the position
+	 */
+	@Override
+	public Movie get(int index) {
+		return this.movies.getMovieAtRow(getRowAt(index));
+	}
+
+	/**
+	 * @return the number of movies in the result
+	 */
+	@Override
+	public int size() {
+		return this.to - this.from;
+	}
+
+	/**
+	 * @param index the position of a movie in the result
+	 * @return the row of the movie in the searched list
+	 */
+	public int getRowAt(int index) {
+		if (index < 0 || index >= size()) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+		}
+		return this.rows[this.from + index];
+	}
+
+	/**
+	 * @return a copy of the rows of the movies in the result, in result order
+	 */
+	public int[] getRows() {
+		return Arrays.copyOfRange(this.rows, this.from, this.to);
+	}
+
+	/**
+	 * @return the searched movies
+	 */
+	public MovieList getMovies() {
+		return movies;
+	}
+
+	/**
+	 * Returns a range of the result, sharing the result's rows
+	 *
+	 * @param fromIndex the position of the first movie of the range (inclusive)
+	 * @param toIndex   the position of the last movie of the range (exclusive)
+	 * @return a result of the movies in the range
+	 */
+	@Override
+	public SearchResult subList(int fromIndex, int toIndex) {
+		if (fromIndex < 0 || toIndex > size() || fromIndex > toIndex) {
+			throw new IndexOutOfBoundsException("From: " + fromIndex + ", To: " + toIndex + ", Size: " + size());
+		}
+		return new SearchResult(this.movies, this.rows, this.from + fromIndex, this.from + toIndex);
+	}
+
+	/**
+	 * Narrows the result to the movies matching the filter
+	 *
+	 * @param filter selects the movies to keep
+	 * @return a result of the matching movies
+	 */
+	public SearchResult filter(Predicate<? super Movie> filter) {
+		int[] matches = new int[size()];
+		int count = 0;
+		for (int i = this.from; i < this.to; i++) {
+			if ((i & SearchEngine.CHECK_INTERVAL) == 0) {
+				SearchEngine.checkCancelled();
+			}
+			if (filter.test(this.movies.getMovieAtRow(this.rows[i]))) {
+				matches[count++] = this.rows[i];
+			}
+		}
+		return new SearchResult(this.movies, matches, 0, count);
+	}
+
+	/**
+	 * Narrows the result to the movies whose rows match the filter, without
+	 * decoding the movies
+	 *
+	 * @param filter selects the rows of the movies to keep
+	 * @return a result of the matching movies
+	 */
+	public SearchResult filterRows(IntPredicate filter) {
+		int[] matches = new int[size()];
+		int count = 0;
+		for (int i = this.from; i < this.to; i++) {
+			if ((i & SearchEngine.CHECK_INTERVAL) == 0) {
+				SearchEngine.checkCancelled();
+			}
+			if (filter.test(this.rows[i])) {
+				matches[count++] = this.rows[i];
+			}
+		}
+		return new SearchResult(this.movies, matches, 0, count);
+	}
+
+	/**
+	 * Counts the movies of the result matching the filter
+	 *
+	 * @param filter selects the movies to count
+	 * @return the number of matching movies
+	 */
+	public int count(Predicate<? super Movie> filter) {
+		int count = 0;
+		for (int i = this.from; i < this.to; i++) {
+			if ((i & SearchEngine.CHECK_INTERVAL) == 0) {
+				SearchEngine.checkCancelled();
+			}
+			if (filter.test(this.movies.getMovieAtRow(this.rows[i]))) {
+				count++;
+			}
+		}
+		return count;
+	}
+}
@@ -0,0 +1,35 @@
+package moviecollection;
+
+import java.util.Comparator;
+
+/**
+ * Attributes of a Movie that Search Results can be Ordered by.
+ *
+ * @author Olaf Wrieden
+ * @version 1.0
+ */
+public enum SortField {
+	TITLE,
+	DIRECTOR,
+	YEAR,
+	RATING;
+
+	/**
+	 * Orders movies by the attribute in ascending order. Text is compared
+	 * ignoring case, and missing text comes last.
+	 *
+	 * @return a comparator of movies by the attribute
+	 */
+	public Comparator<Movie> comparator() {
+		switch (this) {
+		case TITLE:
+			return Comparator.comparing(Movie::getTitle, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+		case DIRECTOR:
+			return Comparator.comparing(Movie::getDirector, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+		case YEAR:
+			return Comparator.comparingInt(Movie::getReleaseYear);
+		default:
+			return Comparator.comparing(Movie::getRating);
+		}
+	}
+}
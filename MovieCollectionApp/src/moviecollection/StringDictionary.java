@@ -0,0 +1,108 @@
+package moviecollection;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionary Storing each Distinct String Once, under an Integer Code.
+ *
+ * Codes are handed out in the order strings are first encoded and never
+ * change, so two strings are equal exactly when their codes are. Strings are
+ * never removed from the dictionary. Strings can be encoded and decoded from
+ * several threads at once.
+ *
+ * @author Olaf Wrieden
+ * @version 1.0
+ */
+public class StringDictionary {
+
+	/**
+	 * The code of a missing (null) string
+	 */
+	public static final int NULL = -1;
+
+	/**
+	 * The dictionary of the names of directors and cast members
+	 */
+	public static final StringDictionary NAMES = new StringDictionary();
+
+	// Dictionary Attributes
+	private final ConcurrentHashMap<String, Integer> codes;
+	private volatile String[] strings;
+	private int size;
+
+	/**
+	 * Constructs an empty String Dictionary
+	 */
+	public StringDictionary() {
+		this.codes = new ConcurrentHashMap<String, Integer>();
+		this.strings = new String[16];
+	}
+
+	/**
+	 * Looks up the code of a string, adding the string to the dictionary if it
+	 * is new
+	 *
+	 * @param string the string to encode, or null
+	 * @return the string's code, or {@link #NULL} for null
+	 */
+	public int encode(String string) {
+		if (string == null) {
+			return NULL;
+		}
+		Integer code = this.codes.get(string);
+		return code != null ? code : add(string);
+	}
+
+	/**
+	 * Looks up the code of a string without adding it to the dictionary
+	 *
+	 * @param string the string to look up, or null
+	 * @return the string's code, or {@link #NULL} if the string is null or not
+	 *         in the dictionary
+	 */
+	public int find(String string) {
+		if (string == null) {
+			return NULL;
+		}
+		Integer code = this.codes.get(string);
+		return code != null ? code : NULL;
+	}
+
+	/**
+	 * @param code the code of a string
+	 * @return the string with the code, or null for {@link #NULL}
+	 */
+	public String decode(int code) {
+		return code == NULL ? null : this.strings[code];
+	}
+
+	/**
+	 * @return the number of strings in the dictionary
+	 */
+	public int size() {
+		return this.codes.size();
+	}
+
+	/**
+	 * Adds a new string to the dictionary. The string is stored before its code
+	 * is published, so a code read from the map can always be decoded.
+	 *
+	 * @param string the string to add
+	 * @return the string's code
+	 */
+	private synchronized int add(String string) {
+		Integer code = this.codes.get(string);
+		if (code != null) {
+			return code;
+		}
+		String[] strings = this.strings;
+		if (this.size == strings.length) {
+			strings = Arrays.copyOf(strings, this.size * 2);
+		}
+		strings[this.size] = string;
+		this.strings = strings;
+		this.codes.put(string, this.size);
+		return this.size++;
+	}
+}
@@ -0,0 +1,342 @@
+package moviecollection;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Inverted Index of the Words in Movie Titles, Directors and Cast Lists.
+ *
+ * Every field is split into normalized tokens: lower-case runs of letters and
+ * digits, with accents removed. Each token maps to the ascending rows of the
+ * movies holding it in that field. A query matches the movies holding, for
+ * every token of the query, a token starting with it, so "spiel" finds
+ * "Steven Spielberg".
+ *
+ * The distinct tokens of every field are also kept in a {@link BKTree}, so a
+ * fuzzy search can find the tokens within a few edits of a misspelt word
+ * without comparing it to every token.
+ *
+ * @author Olaf Wrieden
+ * @version 1.0
+ */
+public class TokenIndex extends MovieIndex {
+
+	// Index Attributes
+	private final ArrayList<TreeMap<String, IntList>> postings;
+	private final ArrayList<BKTree> terms;
+
+	/**
+	 * Constructs a Token Index
+	 *
+	 * @param movies the movies to index
+	 */
+	public TokenIndex(MovieList movies) {
+		super(movies);
+		this.postings = new ArrayList<TreeMap<String, IntList>>();
+		this.terms = new ArrayList<BKTree>();
+		for (int i = 0; i < SearchField.values().length; i++) {
+			this.postings.add(new TreeMap<String, IntList>());
+			this.terms.add(new BKTree());
+		}
+	}
+
+	/**
+	 * Splits a text into normalized tokens
+	 *
+	 * @param text the text to split
+	 * @return the text's tokens, in order of appearance
+	 */
+	public static String[] tokenize(String text) {
+		if (text == null) {
+			return new String[0];
+		}
+		String normalized = Normalizer.normalize(text, Normalizer.Form.NFD).toLowerCase(Locale.ROOT);
+		ArrayList<String> tokens = new ArrayList<String>();
+		StringBuilder token = new StringBuilder();
+		for (int i = 0; i < normalized.length(); i++) {
+			char c = normalized.charAt(i);
+			if (Character.isLetterOrDigit(c)) {
+				token.append(c);
+			} else if (Character.getType(c) != Character.NON_SPACING_MARK && token.length() > 0) {
+				tokens.add(token.toString());
+				token.setLength(0);
+			}
+		}
+		if (token.length() > 0) {
+			tokens.add(token.toString());
+		}
+		return tokens.toArray(new String[tokens.size()]);
+	}
+
+	/**
+	 * Finds the movies matching the query in a field
+	 *
+	 * @param field the field to search
+	 * @param query the words to search for
+	 * @return the ascending rows of the matching movies
+	 */
+	public int[] search(SearchField field, String query) {
+		catchUp();
+		String[] tokens = tokenize(query);
+		if (tokens.length == 0) {
+			return allRows();
+		}
+
+		// Intersect the rows matching each token, starting with the rarest
+		int[][] matches = new int[tokens.length][];
+		for (int i = 0; i < tokens.length; i++) {
+			matches[i] = rowsStartingWith(field, tokens[i]);
+		}
+		Arrays.sort(matches, (a, b) -> Integer.compare(a.length, b.length));
+		int[] rows = matches[0];
+		for (int i = 1; i < matches.length && rows.length > 0; i++) {
+			rows = intersect(rows, matches[i]);
+		}
+		return visibleRows(rows);
+	}
+
+	/**
+	 * Finds the movies holding, for every word of the query, a token within a
+	 * few edits of it. The matches are ranked by the total number of edits,
+	 * fewest first, and then by row.
+	 *
+	 * @param field       the field to search
+	 * @param query       the words to search for
+	 * @param maxDistance the greatest number of edits to allow per word, or -1
+	 *                    to allow more edits in longer words
+	 * @return the rows of the matching movies, ranked
+	 */
+	public int[] searchFuzzy(SearchField field, String query, int maxDistance) {
+		catchUp();
+		String[] tokens = tokenize(query);
+		if (tokens.length == 0) {
+			return allRows();
+		}
+
+		// Intersect the rows matching each word, adding up their edits
+		int[] rows = null;
+		int[] distances = null;
+		for (String token : tokens) {
+			SearchEngine.checkCancelled();
+			long[] matches = rowsNear(field, token, maxDistance < 0 ? maxEdits(token) : maxDistance);
+			if (rows == null) {
+				rows = new int[matches.length];
+				distances = new int[matches.length];
+				for (int i = 0; i < matches.length; i++) {
+					rows[i] = (int) (matches[i] >>> 32);
+					distances[i] = (int) matches[i];
+				}
+				continue;
+			}
+			int count = 0;
+			for (int i = 0, j = 0; i < rows.length && j < matches.length;) {
+				int row = (int) (matches[j] >>> 32);
+				if (rows[i] < row) {
+					i++;
+				} else if (rows[i] > row) {
+					j++;
+				} else {
+					rows[count] = rows[i];
+					distances[count++] = distances[i++] + (int) matches[j++];
+				}
+			}
+			rows = Arrays.copyOf(rows, count);
+			distances = Arrays.copyOf(distances, count);
+		}
+
+		// Rank the visible matches by their edits, then by row
+		long[] ranked = new long[rows.length];
+		int count = 0;
+		for (int i = 0; i < rows.length; i++) {
+			if (this.movies.positionOfRow(rows[i]) != -1) {
+				ranked[count++] = (long) distances[i] << 32 | rows[i];
+			}
+		}
+		Arrays.sort(ranked, 0, count);
+		rows = new int[count];
+		for (int i = 0; i < count; i++) {
+			rows[i] = (int) ranked[i];
+		}
+		return rows;
+	}
+
+	/**
+	 * Estimates the number of movies a fuzzy search would match
+	 *
+	 * @param field       the field to search
+	 * @param query       the words to search for
+	 * @param maxDistance the greatest number of edits to allow per word, or -1
+	 *                    to allow more edits in longer words
+	 * @return the number of movies matching the rarest word of the query
+	 */
+	public int estimateFuzzy(SearchField field, String query, int maxDistance) {
+		catchUp();
+		int estimate = this.movies.size();
+		for (String token : tokenize(query)) {
+			ArrayList<String> near = new ArrayList<String>();
+			this.terms.get(field.ordinal()).search(token, maxDistance < 0 ? maxEdits(token) : maxDistance, near,
+					new IntList());
+			int rows = 0;
+			for (String term : near) {
+				IntList termRows = this.postings.get(field.ordinal()).get(term);
+				rows += termRows == null ? 0 : termRows.size();
+			}
+			estimate = Math.min(estimate, rows);
+		}
+		return estimate;
+	}
+
+	/**
+	 * Chooses the number of edits to allow in a word of a fuzzy search: none in
+	 * words of up to two characters, one in words of up to five characters and
+	 * two in longer words
+	 *
+	 * @param token the normalized word
+	 * @return the greatest number of edits to allow
+	 */
+	public static int maxEdits(String token) {
+		return token.length() <= 2 ? 0 : token.length() <= 5 ? 1 : 2;
+	}
+
+	/**
+	 * Estimates the number of movies a search would match
+	 *
+	 * @param field the field to search
+	 * @param query the words to search for
+	 * @return the number of movies matching the rarest word of the query
+	 */
+	public int estimate(SearchField field, String query) {
+		catchUp();
+		int estimate = this.movies.size();
+		for (String token : tokenize(query)) {
+			int rows = 0;
+			for (IntList tokenRows : this.postings.get(field.ordinal()).subMap(token, token + Character.MAX_VALUE)
+					.values()) {
+				rows += tokenRows.size();
+			}
+			estimate = Math.min(estimate, rows);
+		}
+		return estimate;
+	}
+
+	/**
+	 * Adds a movie's tokens to the index
+	 *
+	 * @param row   the row of the movie
+	 * @param movie the movie to add
+	 */
+	@Override
+	protected void addRow(int row, Movie movie) {
+		for (SearchField field : SearchField.values()) {
+			TreeMap<String, IntList> fieldPostings = this.postings.get(field.ordinal());
+			for (String token : tokens(field, movie)) {
+				IntList rows = fieldPostings.get(token);
+				if (rows == null) {
+					rows = new IntList(2);
+					fieldPostings.put(token, rows);
+					this.terms.get(field.ordinal()).add(token);
+				}
+				rows.add(row);
+			}
+		}
+	}
+
+	/**
+	 * Removes a movie's tokens from the index
+	 *
+	 * @param row   the row of the movie
+	 * @param movie the movie to remove
+	 */
+	@Override
+	protected void removeRow(int row, Movie movie) {
+		for (SearchField field : SearchField.values()) {
+			TreeMap<String, IntList> fieldPostings = this.postings.get(field.ordinal());
+			for (String token : tokens(field, movie)) {
+				IntList rows = fieldPostings.get(token);
+				if (rows != null && removeFromPostings(rows, row)) {
+					fieldPostings.remove(token);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param field the field to split
+	 * @param movie the movie holding the field
+	 * @return the distinct tokens of the movie's field
+	 */
+	private static HashSet<String> tokens(SearchField field, Movie movie) {
+		return new HashSet<String>(Arrays.asList(tokenize(field.getText(movie))));
+	}
+
+	/**
+	 * Finds the rows holding a token near a word. Tokens no longer held by any
+	 * movie stay in the tree but have no rows.
+	 *
+	 * @param field       the field to search
+	 * @param token       the normalized word
+	 * @param maxDistance the greatest number of edits to allow
+	 * @return the ascending rows holding a near token, each packed into the
+	 *         upper half of a long above the fewest edits of its tokens
+	 */
+	private long[] rowsNear(SearchField field, String token, int maxDistance) {
+		ArrayList<String> near = new ArrayList<String>();
+		IntList distances = new IntList();
+		this.terms.get(field.ordinal()).search(token, maxDistance, near, distances);
+		int count = 0;
+		for (String term : near) {
+			IntList rows = this.postings.get(field.ordinal()).get(term);
+			count += rows == null ? 0 : rows.size();
+		}
+		long[] matches = new long[count];
+		count = 0;
+		for (int i = 0; i < near.size(); i++) {
+			IntList rows = this.postings.get(field.ordinal()).get(near.get(i));
+			for (int j = 0; rows != null && j < rows.size(); j++) {
+				matches[count++] = (long) rows.get(j) << 32 | distances.get(i);
+			}
+		}
+
+		// Keep each row once, with its fewest edits
+		Arrays.sort(matches);
+		count = 0;
+		for (int i = 0; i < matches.length; i++) {
+			if (i == 0 || matches[i] >>> 32 != matches[i - 1] >>> 32) {
+				matches[count++] = matches[i];
+			}
+		}
+		return Arrays.copyOf(matches, count);
+	}
+
+	/**
+	 * @param field  the field to search
+	 * @param prefix the start of the tokens to find
+	 * @return the ascending rows holding a token starting with the prefix
+	 */
+	private int[] rowsStartingWith(SearchField field, String prefix) {
+		Map<String, IntList> matches = this.postings.get(field.ordinal()).subMap(prefix, prefix + Character.MAX_VALUE);
+		if (matches.size() == 1) {
+			return matches.values().iterator().next().toArray();
+		}
+		IntList rows = new IntList();
+		for (IntList tokenRows : matches.values()) {
+			for (int i = 0; i < tokenRows.size(); i++) {
+				rows.add(tokenRows.get(i));
+			}
+		}
+		int[] sorted = rows.toArray();
+		Arrays.sort(sorted);
+		int count = 0;
+		for (int i = 0; i < sorted.length; i++) {
+			if (i == 0 || sorted[i] != sorted[i - 1]) {
+				sorted[count++] = sorted[i];
+			}
+		}
+		return Arrays.copyOf(sorted, count);
+	}
+}
@@ -0,0 +1,191 @@
+package moviecollection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Trigram Index of Movie Titles, Directors and Cast Lists.
+ *
+ * Every run of three characters of a lower-cased field maps to the ascending
+ * rows of the movies holding it. A search intersects the rows of the query's
+ * trigrams, starting with the rarest, until few candidates are left, then
+ * checks each candidate, so the results match a case-insensitive substring
+ * search exactly. Queries shorter than a trigram are checked against every
+ * movie.
+ *
+ * @author Olaf Wrieden
+ * @version 1.0
+ */
+public class TrigramIndex extends MovieIndex {
+
+	// Candidates are checked directly once there are this few of them
+	private static final int CHECK_THRESHOLD = 64;
+
+	// Index Attributes
+	private final ArrayList<HashMap<Long, IntList>> postings;
+
+	/**
+	 * Constructs a Trigram Index
+	 *
+	 * @param movies the movies to index
+	 */
+	public TrigramIndex(MovieList movies) {
+		super(movies);
+		this.postings = new ArrayList<HashMap<Long, IntList>>();
+		for (int i = 0; i < SearchField.values().length; i++) {
+			this.postings.add(new HashMap<Long, IntList>());
+		}
+	}
+
+	/**
+	 * Finds the movies whose field contains the query, ignoring case
+	 *
+	 * @param field the field to search
+	 * @param query the text to search for
+	 * @return the ascending rows of the matching movies
+	 */
+	public int[] search(SearchField field, String query) {
+		catchUp();
+		String text = query.toLowerCase();
+		if (text.isEmpty()) {
+			return allRows();
+		}
+		int[] candidates;
+		if (text.length() < 3) {
+			candidates = allRows();
+		} else {
+			// Intersect the rows of the query's trigrams, starting with the rarest
+			long[] trigrams = trigrams(text);
+			IntList[] matches = new IntList[trigrams.length];
+			for (int i = 0; i < trigrams.length; i++) {
+				matches[i] = this.postings.get(field.ordinal()).get(trigrams[i]);
+				if (matches[i] == null) {
+					return new int[0];
+				}
+			}
+			Arrays.sort(matches, (a, b) -> Integer.compare(a.size(), b.size()));
+			candidates = matches[0].toArray();
+			for (int i = 1; i < matches.length && candidates.length > CHECK_THRESHOLD; i++) {
+				candidates = intersect(candidates, matches[i].toArray());
+			}
+		}
+
+		// Check the candidates that are visible in the list
+		int count = 0;
+		for (int i = 0; i < candidates.length; i++) {
+			if ((i & SearchEngine.CHECK_INTERVAL) == 0) {
+				SearchEngine.checkCancelled();
+			}
+			int row = candidates[i];
+			if (this.movies.positionOfRow(row) != -1 && contains(field, this.movies.getMovieAtRow(row), text)) {
+				candidates[count++] = row;
+			}
+		}
+		return Arrays.copyOf(candidates, count);
+	}
+
+	/**
+	 * Estimates the number of movies a search would check
+	 *
+	 * @param field the field to search
+	 * @param query the text to search for
+	 * @return the number of candidates of the search
+	 */
+	public int estimate(SearchField field, String query) {
+		catchUp();
+		String text = query.toLowerCase();
+		if (text.length() < 3) {
+			return this.movies.size();
+		}
+		int estimate = Integer.MAX_VALUE;
+		for (long trigram : trigrams(text)) {
+			IntList rows = this.postings.get(field.ordinal()).get(trigram);
+			estimate = Math.min(estimate, rows == null ? 0 : rows.size());
+		}
+		return estimate;
+	}
+
+	/**
+	 * Adds a movie's trigrams to the index
+	 *
+	 * @param row   the row of the movie
+	 * @param movie the movie to add
+	 */
+	@Override
+	protected void addRow(int row, Movie movie) {
+		for (SearchField field : SearchField.values()) {
+			HashMap<Long, IntList> fieldPostings = this.postings.get(field.ordinal());
+			for (long trigram : trigrams(field, movie)) {
+				IntList rows = fieldPostings.get(trigram);
+				if (rows == null) {
+					rows = new IntList(2);
+					fieldPostings.put(trigram, rows);
+				}
+				rows.add(row);
+			}
+		}
+	}
+
+	/**
+	 * Removes a movie's trigrams from the index
+	 *
+	 * @param row   the row of the movie
+	 * @param movie the movie to remove
+	 */
+	@Override
+	protected void removeRow(int row, Movie movie) {
+		for (SearchField field : SearchField.values()) {
+			HashMap<Long, IntList> fieldPostings = this.postings.get(field.ordinal());
+			for (long trigram : trigrams(field, movie)) {
+				IntList rows = fieldPostings.get(trigram);
+				if (rows != null && removeFromPostings(rows, row)) {
+					fieldPostings.remove(trigram);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param field the field to check
+	 * @param movie the movie holding the field
+	 * @param text  the lower-case text to find
+	 * @return true if the movie's field contains the text, else false
+	 */
+	private static boolean contains(SearchField field, Movie movie, String text) {
+		String value = field.getText(movie);
+		return value != null && value.toLowerCase().contains(text);
+	}
+
+	/**
+	 * @param field the field to split
+	 * @param movie the movie holding the field
+	 * @return the distinct trigrams of the movie's lower-cased field
+	 */
+	private static long[] trigrams(SearchField field, Movie movie) {
+		String value = field.getText(movie);
+		return value == null ? new long[0] : trigrams(value.toLowerCase());
+	}
+
+	/**
+	 * @param text the text to split
+	 * @return the distinct trigrams of the text, each packed into a long
+	 */
+	private static long[] trigrams(String text) {
+		if (text.length() < 3) {
+			return new long[0];
+		}
+		long[] trigrams = new long[text.length() - 2];
+		for (int i = 0; i < trigrams.length; i++) {
+			trigrams[i] = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+		}
+		Arrays.sort(trigrams);
+		int count = 0;
+		for (int i = 0; i < trigrams.length; i++) {
+			if (i == 0 || trigrams[i] != trigrams[i - 1]) {
+				trigrams[count++] = trigrams[i];
+			}
+		}
+		return Arrays.copyOf(trigrams, count);
+	}
+}
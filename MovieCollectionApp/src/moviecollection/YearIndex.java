@@ -0,0 +1,232 @@
+package moviecollection;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.IntPredicate;
+
+/**
+ * Index of Movies by Release Year.
+ *
+ * Every release year holds a bucket with the ascending rows of the movies
+ * released in it. A range query merges the buckets in the range into
+ * collection order, so it costs time in the number of results times the
+ * logarithm of the number of years, however many movies are indexed.
+ *
+ * @author Olaf Wrieden
+ * @version 1.0
+ */
+public class YearIndex extends MovieIndex {
+
+	// Index Attributes
+	private final TreeMap<Integer, IntList> buckets;
+
+	/**
+	 * Constructs a Year Index
+	 *
+	 * @param movies the movies to index
+	 */
+	public YearIndex(MovieList movies) {
+		super(movies);
+		this.buckets = new TreeMap<Integer, IntList>();
+	}
+
+	/**
+	 * Finds the movies released between two years
+	 *
+	 * @param startYear the first release year (inclusive)
+	 * @param endYear   the last release year (inclusive)
+	 * @return the ascending rows of the matching movies
+	 */
+	public int[] search(int startYear, int endYear) {
+		catchUp();
+		if (startYear > endYear) {
+			return new int[0];
+		}
+		Map<Integer, IntList> range = this.buckets.subMap(startYear, true, endYear, true);
+		if (range.size() == 1) {
+			return visibleRows(range.values().iterator().next().toArray());
+		}
+
+		// Merge the buckets, taking the least next row from a heap of buckets
+		IntList[] buckets = range.values().toArray(new IntList[range.size()]);
+		int[] positions = new int[buckets.length];
+		int[] heap = new int[buckets.length];
+		int heapSize = 0;
+		int count = 0;
+		for (int i = 0; i < buckets.length; i++) {
+			if (!buckets[i].isEmpty()) {
+				heap[heapSize++] = i;
+				count += buckets[i].size();
+			}
+		}
+		for (int i = heapSize / 2 - 1; i >= 0; i--) {
+			siftDown(heap, heapSize, i, buckets, positions);
+		}
+		int[] rows = new int[count];
+		for (int offset = 0; offset < count; offset++) {
+			int least = heap[0];
+			rows[offset] = buckets[least].get(positions[least]++);
+			if (positions[least] == buckets[least].size()) {
+				heap[0] = heap[--heapSize];
+			}
+			if (heapSize > 0) {
+				siftDown(heap, heapSize, 0, buckets, positions);
+			}
+		}
+		return visibleRows(rows);
+	}
+
+	/**
+	 * Moves a bucket down the heap until its next row is no greater than those
+	 * of the buckets below it
+	 *
+	 * @param heap      the indexes of the buckets with rows left
+	 * @param heapSize  the number of buckets in the heap
+	 * @param index     the position of the bucket to move down
+	 * @param buckets   the merged buckets
+	 * @param positions the position of the next row of each bucket
+	 */
+	private static void siftDown(int[] heap, int heapSize, int index, IntList[] buckets, int[] positions) {
+		int bucket = heap[index];
+		int row = buckets[bucket].get(positions[bucket]);
+		while (2 * index + 1 < heapSize) {
+			int child = 2 * index + 1;
+			int childRow = buckets[heap[child]].get(positions[heap[child]]);
+			if (child + 1 < heapSize) {
+				int rightRow = buckets[heap[child + 1]].get(positions[heap[child + 1]]);
+				if (rightRow < childRow) {
+					child++;
+					childRow = rightRow;
+				}
+			}
+			if (row <= childRow) {
+				break;
+			}
+			heap[index] = heap[child];
+			index = child;
+		}
+		heap[index] = bucket;
+	}
+
+	/**
+	 * Finds the first accepted movies in order of release year, walking the
+	 * buckets until enough movies are found. Movies released in the same year
+	 * are ordered by row.
+	 *
+	 * @param descending true to start with the newest movies, else false
+	 * @param accept     selects the rows to find
+	 * @param count      the number of movies to find
+	 * @return the rows of up to count visible accepted movies, in order
+	 */
+	public int[] ordered(boolean descending, IntPredicate accept, int count) {
+		catchUp();
+		IntList rows = new IntList(Math.max(1, Math.min(count, this.movies.size())));
+		for (IntList bucket : (descending ? this.buckets.descendingMap() : this.buckets).values()) {
+			for (int i = 0; i < bucket.size() && rows.size() < count; i++) {
+				int row = bucket.get(i);
+				if (accept.test(row) && this.movies.positionOfRow(row) != -1) {
+					rows.add(row);
+				}
+			}
+			if (rows.size() == count) {
+				break;
+			}
+		}
+		return rows.toArray();
+	}
+
+	/**
+	 * Counts the selected movies released in each decade, testing the rows of
+	 * every year against the selection
+	 *
+	 * @param rows    the rows of the selected movies
+	 * @param decades receives the number of selected movies released in each
+	 *                decade holding any, by the decade's first year
+	 */
+	public void countDecades(IdBitmap rows, SortedMap<Integer, Integer> decades) {
+		catchUp();
+		for (Map.Entry<Integer, IntList> bucket : this.buckets.entrySet()) {
+			SearchEngine.checkCancelled();
+			IntList yearRows = bucket.getValue();
+			int count = 0;
+			for (int i = 0; i < yearRows.size(); i++) {
+				if (rows.contains(yearRows.get(i))) {
+					count++;
+				}
+			}
+			if (count > 0) {
+				decades.merge(FacetCounts.decadeOf(bucket.getKey()), count, Integer::sum);
+			}
+		}
+	}
+
+	/**
+	 * Counts the movies released between two years
+	 *
+	 * @param startYear the first release year (inclusive)
+	 * @param endYear   the last release year (inclusive)
+	 * @return the number of indexed movies released in the range
+	 */
+	public int estimate(int startYear, int endYear) {
+		catchUp();
+		if (startYear > endYear) {
+			return 0;
+		}
+		int count = 0;
+		for (IntList bucket : this.buckets.subMap(startYear, true, endYear, true).values()) {
+			count += bucket.size();
+		}
+		return count;
+	}
+
+	/**
+	 * Adds the movie stored in a row to the bucket of its release year
+	 *
+	 * @param row the row of the movie
+	 */
+	@Override
+	protected void addRow(int row) {
+		addRow(row, this.movies.getReleaseYearAt(row));
+	}
+
+	/**
+	 * Adds a movie to the bucket of its release year
+	 *
+	 * @param row   the row of the movie
+	 * @param movie the movie to add
+	 */
+	@Override
+	protected void addRow(int row, Movie movie) {
+		addRow(row, movie.getReleaseYear());
+	}
+
+	/**
+	 * Adds a row to the bucket of a release year
+	 *
+	 * @param row         the row of the movie
+	 * @param releaseYear the movie's release year
+	 */
+	private void addRow(int row, int releaseYear) {
+		IntList bucket = this.buckets.get(releaseYear);
+		if (bucket == null) {
+			bucket = new IntList();
+			this.buckets.put(releaseYear, bucket);
+		}
+		bucket.add(row);
+	}
+
+	/**
+	 * Removes a movie from the bucket of its release year
+	 *
+	 * @param row   the row of the movie
+	 * @param movie the movie to remove
+	 */
+	@Override
+	protected void removeRow(int row, Movie movie) {
+		IntList bucket = this.buckets.get(movie.getReleaseYear());
+		if (bucket != null && removeFromPostings(bucket, row)) {
+			this.buckets.remove(movie.getReleaseYear());
+		}
+	}
+}